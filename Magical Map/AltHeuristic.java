@@ -0,0 +1,15 @@
+// ALT lower bound: the largest landmark triangle-inequality bound between the two nodes
+public class AltHeuristic implements Heuristic {
+    private final LandmarkTable table;
+    private final int maxY;                   // Grid height, to turn coordinates into node ids
+
+    public AltHeuristic(LandmarkTable table, int maxY) {
+        this.table = table;
+        this.maxY = maxY;
+    }
+
+    @Override
+    public double estimate(int x, int y, int tx, int ty) {
+        return table.lowerBound(x * maxY + y, tx * maxY + ty);
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Fills reusable byte buffers on the caller's thread and writes them to a FileChannel on a
+// background thread. A fixed set of buffers circulates between the two threads, so a slow disk
+// blocks the producer instead of letting memory grow.
+public class AsyncChannelWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;        // Bytes per buffer
+    private static final int BUFFER_COUNT = 4;             // Buffers in circulation
+    private static final ByteBuffer END = ByteBuffer.allocate(0); // Tells the writer thread to stop
+
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+    private final BlockingQueue<ByteBuffer> empty = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private final Thread thread;
+    private volatile IOException failure;                  // First error seen by the writer thread
+    private ByteBuffer current;                            // Buffer the caller is filling
+    private boolean closed;
+
+    public AsyncChannelWriter(String filename) throws IOException {
+        channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            empty.add(ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+        }
+        current = empty.poll();
+        thread = new Thread(this::drain, "trace-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Current buffer with room for at least 'needed' bytes (needed must not exceed BUFFER_SIZE)
+    public ByteBuffer buffer(int needed) throws IOException {
+        if (current.remaining() < needed) {
+            handOff();
+            current = take(empty);
+        }
+        return current;
+    }
+
+    // Pass the partly filled buffer to the writer thread without waiting for the disk
+    public void flush() throws IOException {
+        if (current.position() > 0) {
+            handOff();
+            current = take(empty);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (current.position() > 0) {
+                handOff();
+            }
+            put(END);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the trace");
+        } finally {
+            channel.close();
+        }
+        checkFailure();
+    }
+
+    // Internal helper methods
+
+    private void handOff() throws IOException {
+        checkFailure();
+        current.flip();
+        put(current);
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                ByteBuffer buf = filled.take();
+                if (buf == END) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        while (buf.hasRemaining()) {
+                            channel.write(buf);
+                        }
+                    } catch (IOException e) {
+                        failure = e;                       // Reported to the producer on its next hand-off
+                    }
+                }
+                buf.clear();
+                empty.put(buf);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Writing the trace failed", failure);
+        }
+    }
+
+    private void put(ByteBuffer buf) throws IOException {
+        try {
+            filled.put(buf);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the trace");
+        }
+    }
+
+    private ByteBuffer take(BlockingQueue<ByteBuffer> queue) throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the trace");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Runs many objective files against one loaded map. The map is read once; every scenario gets its
+// own navigator from OzNavigator.scenario, so only the immutable adjacency is shared, and writes
+// its trace to a file of the same name in the output directory. Scenarios run on a fork-join pool
+// with one worker per core unless --threads=N is given.
+public class BatchRunner {
+    private final OzNavigator map;                              // Loaded map the scenarios are taken from
+    private final List<String> flags;                           // Navigator flags applied to every scenario
+    private final int threads;
+
+    public BatchRunner(OzNavigator map, List<String> flags) {
+        this.map = map;
+        this.flags = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : flags) {
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+                if (threads < 1) {
+                    throw new IllegalArgumentException("Thread count must be positive: " + arg);
+                }
+            } else if (!arg.equals("--batch")) {
+                this.flags.add(arg);
+            }
+        }
+        this.threads = threads;
+    }
+
+    // The objective files of a directory, sorted by name, or the paths listed in a manifest file,
+    // one per line and relative to the manifest. Blank lines and lines starting with '#' are skipped.
+    public static List<Path> scenarioFiles(String source) throws IOException {
+        Path path = Path.of(source);
+        ArrayList<Path> files = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (DirectoryStream<Path> dir = Files.newDirectoryStream(path, Files::isRegularFile)) {
+                for (Path file : dir) {
+                    files.add(file);
+                }
+            }
+            files.sort(null);
+        } else {
+            Path base = path.toAbsolutePath().getParent();
+            for (String line : Files.readAllLines(path)) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    files.add(base.resolve(line));
+                }
+            }
+        }
+        return files;
+    }
+
+    // Run every scenario and wait for all of them; returns the number that failed.
+    // A failure is reported on stderr and does not stop the other scenarios. Nothing runs if an
+    // output would overwrite an objective file or one of the other inputs (map files, manifest).
+    public int run(List<Path> objectiveFiles, Path outputDir, List<Path> otherInputs) throws IOException {
+        HashSet<Path> inputs = new HashSet<>();
+        for (Path input : objectiveFiles) {
+            inputs.add(realPath(input));
+        }
+        for (Path input : otherInputs) {
+            inputs.add(realPath(input));
+        }
+        HashSet<Path> outputs = new HashSet<>();
+        ArrayList<Callable<Void>> scenarios = new ArrayList<>();
+        for (Path objectives : objectiveFiles) {
+            Path output = outputDir.resolve(objectives.getFileName());
+            for (Path written : writtenFiles(output)) {
+                Path real = realPath(written);
+                if (inputs.contains(real)) {
+                    throw new IOException("Output " + written + " would overwrite an input file");
+                }
+                if (!outputs.add(real)) {
+                    throw new IOException("Two scenarios would write " + written);
+                }
+            }
+            scenarios.add(() -> {
+                runScenario(objectives.toString(), output.toString());
+                return null;
+            });
+        }
+
+        Files.createDirectories(outputDir);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        int failed = 0;
+        try {
+            List<Future<Void>> results = pool.invokeAll(scenarios);
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    System.err.println("Scenario " + objectiveFiles.get(i) + " failed:");
+                    e.getCause().printStackTrace();
+                    failed++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while running scenarios");
+        } finally {
+            pool.shutdown();
+        }
+        return failed;
+    }
+
+    // The trace file and, with metrics on, the metrics file next to it
+    private List<Path> writtenFiles(Path output) {
+        ArrayList<Path> written = new ArrayList<>();
+        written.add(output);
+        if (flags.contains("--metrics=csv") || flags.contains("--metrics=json")) {
+            String format = flags.contains("--metrics=json") ? "json" : "csv";
+            written.add(output.resolveSibling(output.getFileName() + ".metrics." + format));
+        }
+        return written;
+    }
+
+    // The path with links and relative parts resolved, as far as it exists, so two names of one
+    // file compare equal
+    private static Path realPath(Path path) throws IOException {
+        if (Files.exists(path)) {
+            return path.toRealPath();
+        }
+        Path absolute = path.toAbsolutePath().normalize();
+        Path parent = absolute.getParent();
+        return parent != null ? realPath(parent).resolve(absolute.getFileName()) : absolute;
+    }
+
+    private void runScenario(String objectivesFile, String outputFile) throws IOException {
+        try (
+                TraceSink trace = flags.contains("--trace=binary")
+                        ? new BinaryTraceSink(outputFile) : new TextTraceSink(outputFile);
+        ) {
+            OzNavigator nav = map.scenario(trace);
+            for (String arg : flags) {
+                Main.applyFlag(nav, arg);                       // Checked by Main before the batch starts
+            }
+            nav.readObjFile(objectivesFile);
+            nav.run();
+
+            if (nav.getMetrics() != null) {
+                String format = flags.contains("--metrics=json") ? "json" : "csv";
+                nav.getMetrics().write(outputFile + ".metrics." + format);
+            }
+        }
+    }
+}
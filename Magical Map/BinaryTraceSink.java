@@ -0,0 +1,56 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Compact trace for downstream tools: a header, then one record per event.
+//
+// Header:  int magic "OZTR", int version
+// Records: byte tag, followed by the tag's little-endian int fields
+//   CHOSEN     option
+//   IMPASSABLE (no fields)
+//   MOVED      x, y
+//   REACHED    objective number
+public class BinaryTraceSink implements TraceSink {
+    public static final int MAGIC = 0x52545A4F;            // "OZTR" read as little-endian bytes
+    public static final int VERSION = 1;
+    public static final byte CHOSEN = 1;
+    public static final byte IMPASSABLE = 2;
+    public static final byte MOVED = 3;
+    public static final byte REACHED = 4;
+
+    private final AsyncChannelWriter out;
+
+    public BinaryTraceSink(String filename) throws IOException {
+        out = new AsyncChannelWriter(filename);
+        out.buffer(8).putInt(MAGIC).putInt(VERSION);
+    }
+
+    @Override
+    public void optionChosen(int option) throws IOException {
+        out.buffer(5).put(CHOSEN).putInt(option);
+    }
+
+    @Override
+    public void pathImpassable() throws IOException {
+        out.buffer(1).put(IMPASSABLE);
+    }
+
+    @Override
+    public void movedTo(int x, int y) throws IOException {
+        out.buffer(9).put(MOVED).putInt(x).putInt(y);
+    }
+
+    @Override
+    public void objectiveReached(int number) throws IOException {
+        out.buffer(5).put(REACHED).putInt(number);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,237 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Binary form of a loaded map: node types plus the CSR adjacency, written once by --compile and
+// memory-mapped on later runs so the text files never have to be parsed again. Opening only checks
+// the header against the file size and the ends of the offsets section; the payload checksum,
+// which reads every page of the file, is only checked when asked for.
+//
+// Layout (little-endian, every section starts on an 8-byte boundary):
+//   header   magic, version, maxX, maxY, edgeCount, reserved, minTimePerEuclidean,
+//            minTimePerOctile, payload CRC32C, padding up to HEADER_SIZE
+//   types    int[maxX * maxY], MISSING for cells without a node
+//   offsets  int[maxX * maxY + 1]
+//   targets  int[edgeCount]
+//   weights  double[edgeCount]
+public class CompiledMap implements NodeTypes {
+    public static final int MISSING = Integer.MIN_VALUE;      // Type stored for cells the node file never listed
+
+    private static final int MAGIC = 0x504D5A4F;              // "OZMP" read as little-endian bytes
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int CHUNK = 1 << 20;                 // Bytes written per channel call
+
+    private final int maxX, maxY;
+    private final IntBuffer types;
+    private final CsrGraph graph;
+    private final long checksum;                              // Payload CRC32C recorded in the header
+
+    private CompiledMap(int maxX, int maxY, IntBuffer types, CsrGraph graph, long checksum) {
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.types = types;
+        this.graph = graph;
+        this.checksum = checksum;
+    }
+
+    public int maxX() {
+        return maxX;
+    }
+
+    public int maxY() {
+        return maxY;
+    }
+
+    @Override
+    public int type(int id) {                                 // Type of a node id, or MISSING, read in place
+        return types.get(id);
+    }
+
+    public CsrGraph graph() {
+        return graph;
+    }
+
+    // Identifies the map without reading its payload: the checksum recorded when it was written
+    public long fingerprint() {
+        return checksum;
+    }
+
+    // True if the file starts with the compiled map magic number
+    public static boolean isCompiledMap(String filename) {
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            return ch.read(head, 0) == 4 && head.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static void write(String filename, int maxX, int maxY, NodeTypes types, CsrGraph graph) throws IOException {
+        int nodeCount = maxX * maxY;
+        int edgeCount = graph.edgeCount();
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32C crc = new CRC32C();
+            ch.position(HEADER_SIZE);
+
+            // Payload sections; the checksum covers every byte after the header. The edges are read
+            // through the accessors, and the offsets recounted from the degrees, as the edge ids of a
+            // tiled map are not positions in one array.
+            for (int id = 0; id < nodeCount; id++) {
+                putInt(ch, buf, crc, types.type(id));
+            }
+            pad(ch, buf, crc);
+            int offset = 0;
+            for (int u = 0; u < nodeCount; u++) {
+                putInt(ch, buf, crc, offset);
+                offset += graph.endEdge(u) - graph.firstEdge(u);
+            }
+            putInt(ch, buf, crc, offset);
+            pad(ch, buf, crc);
+            for (int u = 0; u < nodeCount; u++) {
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    putInt(ch, buf, crc, graph.target(e));
+                }
+            }
+            pad(ch, buf, crc);
+            for (int u = 0; u < nodeCount; u++) {
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    if (buf.remaining() < 8) {
+                        flush(ch, buf, crc);
+                    }
+                    buf.putDouble(graph.weight(e));
+                }
+            }
+            flush(ch, buf, crc);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(maxX).putInt(maxY)
+                    .putInt(edgeCount).putInt(0)
+                    .putDouble(graph.minTimePerEuclidean()).putDouble(graph.minTimePerOctile())
+                    .putLong(crc.getValue());
+            header.clear();
+            ch.write(header, 0);
+        }
+    }
+
+    // Map a compiled file and expose its sections as buffers; nothing is copied onto the heap.
+    // With verify the whole payload is checked against its checksum first.
+    public static CompiledMap open(String filename, boolean verify) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException(filename + ": truncated compiled map");
+            }
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(filename + ": not a compiled map");
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException(filename + ": unsupported compiled map version " + version);
+            }
+            int maxX = header.getInt(8);
+            int maxY = header.getInt(12);
+            int edgeCount = header.getInt(16);
+            double minTimePerEuclidean = header.getDouble(24);
+            double minTimePerOctile = header.getDouble(32);
+            long checksum = header.getLong(40);
+
+            if (maxX <= 0 || maxY <= 0 || (long) maxX * maxY >= Integer.MAX_VALUE || edgeCount < 0
+                    || !(minTimePerEuclidean >= 0) || !(minTimePerOctile >= 0)) {
+                throw new IOException(filename + ": corrupt compiled map header");
+            }
+            int nodeCount = maxX * maxY;
+            long typesAt = HEADER_SIZE;
+            long offsetsAt = align(typesAt + 4L * nodeCount);
+            long targetsAt = align(offsetsAt + 4L * (nodeCount + 1));
+            long weightsAt = align(targetsAt + 4L * edgeCount);
+            long end = weightsAt + 8L * edgeCount;
+            if (size != end) {
+                throw new IOException(filename + ": compiled map size " + size + " does not match its header");
+            }
+
+            ByteBuffer types = section(ch, typesAt, 4L * nodeCount);
+            ByteBuffer offsets = section(ch, offsetsAt, 4L * (nodeCount + 1));
+            ByteBuffer targets = section(ch, targetsAt, 4L * edgeCount);
+            ByteBuffer weights = section(ch, weightsAt, 8L * edgeCount);
+
+            if (offsets.getInt(0) != 0 || offsets.getInt(4 * nodeCount) != edgeCount) {
+                throw new IOException(filename + ": compiled map offsets do not match its edge count");
+            }
+
+            if (verify) {
+                // Sections are contiguous apart from alignment padding, which was written as zeros
+                CRC32C crc = new CRC32C();
+                crc.update(types.duplicate());
+                crc.update(padding(offsetsAt - (typesAt + 4L * nodeCount)));
+                crc.update(offsets.duplicate());
+                crc.update(padding(targetsAt - (offsetsAt + 4L * (nodeCount + 1))));
+                crc.update(targets.duplicate());
+                crc.update(padding(weightsAt - (targetsAt + 4L * edgeCount)));
+                crc.update(weights.duplicate());
+                if (crc.getValue() != checksum) {
+                    throw new IOException(filename + ": compiled map checksum mismatch");
+                }
+            }
+
+            CsrGraph graph = new CsrGraph(nodeCount, maxY, offsets.asIntBuffer(), targets.asIntBuffer(),
+                    weights.asDoubleBuffer(), minTimePerEuclidean, minTimePerOctile);
+            return new CompiledMap(maxX, maxY, types.asIntBuffer(), graph, checksum);
+        }
+    }
+
+    // Internal helper methods
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static ByteBuffer padding(long length) {
+        return ByteBuffer.allocate((int) length);
+    }
+
+    private static ByteBuffer section(FileChannel ch, long offset, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Compiled map section of " + length + " bytes exceeds the 2 GB mapping limit");
+        }
+        MappedByteBuffer section = ch.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        section.order(ByteOrder.LITTLE_ENDIAN);
+        return section;
+    }
+
+    private static void putInt(FileChannel ch, ByteBuffer buf, CRC32C crc, int value) throws IOException {
+        if (buf.remaining() < 4) {
+            flush(ch, buf, crc);
+        }
+        buf.putInt(value);
+    }
+
+    // Pad the section to the next 8-byte boundary
+    private static void pad(FileChannel ch, ByteBuffer buf, CRC32C crc) throws IOException {
+        while (((ch.position() + buf.position()) & 7) != 0) {
+            if (!buf.hasRemaining()) {
+                flush(ch, buf, crc);
+            }
+            buf.put((byte) 0);
+        }
+    }
+
+    private static void flush(FileChannel ch, ByteBuffer buf, CRC32C crc) throws IOException {
+        buf.flip();
+        crc.update(buf.duplicate());
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+        buf.clear();
+    }
+}
@@ -0,0 +1,193 @@
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+// Immutable adjacency in compressed sparse row form. The arrays are held as buffers so that a
+// graph can sit either on the heap (built from the edges file) or in a memory-mapped compiled map.
+// A tiled map has no flat arrays; its graph overrides the edge accessors to page tiles in instead.
+public class CsrGraph {
+    private final int nodeCount;                // Number of node ids (maxX * maxY)
+    private final int maxY;                     // Grid height, used to map ids back to coordinates
+    private final IntBuffer offsets;            // offsets[u]..offsets[u + 1] is the edge range of node u
+    private final IntBuffer targets;            // Target node id of every directed edge
+    private final DoubleBuffer weights;         // Travel time of every directed edge
+    private final double minTimePerEuclidean;   // Smallest edge time per unit of straight-line length
+    private final double minTimePerOctile;      // Smallest edge time per unit of octile length
+
+    public CsrGraph(int nodeCount, int maxY, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights,
+                    double minTimePerEuclidean, double minTimePerOctile) {
+        this.nodeCount = nodeCount;
+        this.maxY = maxY;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.minTimePerEuclidean = minTimePerEuclidean;
+        this.minTimePerOctile = minTimePerOctile;
+    }
+
+    // For a subclass that serves the edges itself
+    protected CsrGraph(int nodeCount, int maxY, double minTimePerEuclidean, double minTimePerOctile) {
+        this(nodeCount, maxY, null, null, null, minTimePerEuclidean, minTimePerOctile);
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return targets.capacity();
+    }
+
+    public int id(int x, int y) {               // Dense node id of (x,y)
+        return x * maxY + y;
+    }
+
+    public int xOf(int id) {
+        return id / maxY;
+    }
+
+    public int yOf(int id) {
+        return id % maxY;
+    }
+
+    public int firstEdge(int u) {               // Index of the first outgoing edge of u
+        return offsets.get(u);
+    }
+
+    public int endEdge(int u) {                 // One past the index of the last outgoing edge of u
+        return offsets.get(u + 1);
+    }
+
+    public int target(int e) {
+        return targets.get(e);
+    }
+
+    public double weight(int e) {
+        return weights.get(e);
+    }
+
+    public double minTimePerEuclidean() {       // Scale that keeps a Euclidean heuristic admissible
+        return minTimePerEuclidean;
+    }
+
+    public double minTimePerOctile() {          // Scale that keeps an octile heuristic admissible
+        return minTimePerOctile;
+    }
+
+    public int maxY() {
+        return maxY;
+    }
+
+    // Travel time of the edge u -> v, or NaN if there is no such edge
+    public double edgeWeight(int u, int v) {
+        for (int e = firstEdge(u); e < endEdge(u); e++) {
+            if (target(e) == v) {
+                return weight(e);
+            }
+        }
+        return Double.NaN;
+    }
+
+    // Builder collecting directed edges while the edges file is read
+    public static class Builder {
+        private static final int INITIAL_CAPACITY = 16; // Default initial edge capacity
+
+        private final int nodeCount;
+        private final int maxY;
+        private int[] sources = new int[INITIAL_CAPACITY];
+        private int[] targets = new int[INITIAL_CAPACITY];
+        private double[] weights = new double[INITIAL_CAPACITY];
+        private int size;                       // Number of directed edges added so far
+        private double minTimePerEuclidean = Double.POSITIVE_INFINITY;
+        private double minTimePerOctile = Double.POSITIVE_INFINITY;
+
+        public Builder(int maxX, int maxY) {
+            this.nodeCount = maxX * maxY;
+            this.maxY = maxY;
+        }
+
+        public void addEdge(int x1, int y1, int x2, int y2, double time) {
+            if (size == sources.length) {
+                int newCap = sources.length * 2; // Double the capacity
+                sources = Arrays.copyOf(sources, newCap);
+                targets = Arrays.copyOf(targets, newCap);
+                weights = Arrays.copyOf(weights, newCap);
+            }
+            sources[size] = x1 * maxY + y1;
+            targets[size] = x2 * maxY + y2;
+            weights[size] = time;
+            size++;
+
+            // Track the cheapest time per unit length seen so far, for the A* heuristics
+            double dx = Math.abs(x2 - x1);
+            double dy = Math.abs(y2 - y1);
+            if (dx + dy > 0) {
+                double euclidean = Math.sqrt(dx * dx + dy * dy);
+                double octile = Math.max(dx, dy) + (Math.sqrt(2) - 1) * Math.min(dx, dy);
+                minTimePerEuclidean = Math.min(minTimePerEuclidean, time / euclidean);
+                minTimePerOctile = Math.min(minTimePerOctile, time / octile);
+            }
+        }
+
+        public CsrGraph build() {
+            // Counting sort of the edges by source id; it is stable, so every row keeps the order of
+            // the edges file, the order in which the searches relax them and break ties
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int u = 0; u < nodeCount; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+            int[] next = Arrays.copyOf(offsets, nodeCount);
+            int[] rowTargets = new int[size];
+            double[] rowWeights = new double[size];
+            for (int i = 0; i < size; i++) {
+                int pos = next[sources[i]]++;
+                rowTargets[pos] = targets[i];
+                rowWeights[pos] = weights[i];
+            }
+
+            // Drop duplicate edges of each row, keeping the cheapest time at the first one's position
+            int write = 0;
+            int rowStart = 0;
+            for (int u = 0; u < nodeCount; u++) {
+                int rowEnd = offsets[u + 1];
+                offsets[u] = write;
+                for (int e = rowStart; e < rowEnd; e++) {
+                    int seen = find(rowTargets, offsets[u], write, rowTargets[e]);
+                    if (seen >= 0) {
+                        if (rowWeights[e] < rowWeights[seen]) {
+                            rowWeights[seen] = rowWeights[e];
+                        }
+                        continue;
+                    }
+                    rowTargets[write] = rowTargets[e];
+                    rowWeights[write] = rowWeights[e];
+                    write++;
+                }
+                rowStart = rowEnd;
+            }
+            offsets[nodeCount] = write;
+
+            return new CsrGraph(nodeCount, maxY, IntBuffer.wrap(offsets),
+                    IntBuffer.wrap(Arrays.copyOf(rowTargets, write)),
+                    DoubleBuffer.wrap(Arrays.copyOf(rowWeights, write)),
+                    finiteOrZero(minTimePerEuclidean), finiteOrZero(minTimePerOctile));
+        }
+
+        private static double finiteOrZero(double scale) { // No edges means no usable lower bound
+            return Double.isInfinite(scale) ? 0.0 : scale;
+        }
+
+        // Position of target among t[from..to), or -1; grid rows only hold a handful of edges
+        private static int find(int[] t, int from, int to, int target) {
+            for (int i = from; i < to; i++) {
+                if (t[i] == target) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
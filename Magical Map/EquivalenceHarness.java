@@ -0,0 +1,209 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+// Runs the navigator twice on the same inputs with different flags and compares the results.
+//
+// Usage: java EquivalenceHarness <nodes> <edges> <objectives> --left=f1,f2 --right=f1,f2 [--costs-only]
+//            [--baseline=<classpath>]
+//   e.g. --left=--search=dijkstra --right=--search=astar,--heuristic=euclidean
+// The traces are compared event by event unless --costs-only is given; the cost walked towards
+// every objective is always compared. Exits with status 1 on the first difference.
+// With --baseline the left side is the Main of another build, e.g. the classes of the original
+// tree, run in its own JVM with the three files, an output file and the left flags; its text trace
+// is read back. Dijkstra's frontier heap breaks ties between equally short paths differently from
+// the original one, so on maps with many of them (e.g. constant travel times) the default engine
+// can take other routes than the baseline, reveal other fog and walk other costs. On maps with
+// varied travel times the traces match.
+public class EquivalenceHarness {
+    private static final double COST_TOLERANCE = 1e-9;     // Relative tolerance for walked costs
+
+    public static void main(String[] args) throws Exception {
+        ArrayList<String> files = new ArrayList<>();
+        String[] left = new String[0], right = new String[0];
+        boolean costsOnly = false;
+        String baseline = null;
+        for (String arg : args) {
+            if (arg.startsWith("--left=")) {
+                left = splitFlags(arg.substring("--left=".length()));
+            } else if (arg.startsWith("--right=")) {
+                right = splitFlags(arg.substring("--right=".length()));
+            } else if (arg.startsWith("--baseline=")) {
+                baseline = arg.substring("--baseline=".length());
+            } else if (arg.equals("--costs-only")) {
+                costsOnly = true;
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.size() != 3) {
+            System.err.println("Usage: java EquivalenceHarness <nodes> <edges> <objectives> --left=... --right=... [--costs-only]"
+                    + " [--baseline=<classpath>]");
+            System.exit(2);
+        }
+
+        Run a = baseline != null ? new Run(files, left, baseline) : new Run(files, left);
+        Run b = new Run(files, right);
+        System.out.printf("left:  %d events, %d ms%s%n", a.trace.size(), a.millis, a.failure());
+        System.out.printf("right: %d events, %d ms%s%n", b.trace.size(), b.millis, b.failure());
+
+        boolean same = compareCosts(a, b);
+        if (same && !costsOnly) {
+            same = compareTraces(a, b);
+        }
+        if (same && (a.error != null) != (b.error != null)) {
+            System.out.println("Only one run failed");
+            same = false;
+        }
+        System.out.println(same ? "EQUIVALENT" : "DIFFERENT");
+        System.exit(same ? 0 : 1);
+    }
+
+    // One navigator run, kept in memory
+    private static class Run {
+        final RecordingTraceSink trace = new RecordingTraceSink();
+        final long millis;
+        RuntimeException error;                             // The baseline crashes on some maps; record it like output
+        CsrGraph graph;
+        ArrayList<Double> costs;                            // Cost walked towards each reached objective
+
+        Run(ArrayList<String> files, String[] flags) throws Exception {
+            OzNavigator nav = new OzNavigator(trace);
+            for (String flag : flags) {
+                if (!Main.applyFlag(nav, flag)) {
+                    throw new IllegalArgumentException("Unknown option: " + flag);
+                }
+            }
+            nav.readNodeFile(files.get(0));
+            nav.readEdgesFile(files.get(1));
+            nav.readObjFile(files.get(2));
+            long t0 = System.nanoTime();
+            try {
+                nav.run();
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            millis = (System.nanoTime() - t0) / 1000000;
+            graph = nav.getGraph();
+            costs = walkedCosts(nav.getStartX(), nav.getStartY());
+        }
+
+        // Run the Main of another build in a child JVM and read its text trace back
+        Run(ArrayList<String> files, String[] flags, String classpath) throws Exception {
+            Path output = Files.createTempFile("equivalence", ".txt");
+            ArrayList<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.add("-cp");
+            command.add(classpath);
+            command.add("Main");
+            command.addAll(files);
+            command.add(output.toString());
+            for (String flag : flags) {
+                command.add(flag);
+            }
+            long t0 = System.nanoTime();
+            try {
+                Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+                int status = process.waitFor();
+                millis = (System.nanoTime() - t0) / 1000000;   // Includes the child JVM's startup
+                if (status != 0) {
+                    error = new RuntimeException("baseline exited with status " + status);
+                }
+                readTrace(output);
+            } finally {
+                Files.deleteIfExists(output);
+            }
+
+            OzNavigator nav = new OzNavigator(null);              // Only for the graph and start position
+            nav.readNodeFile(files.get(0));
+            nav.readEdgesFile(files.get(1));
+            nav.readObjFile(files.get(2));
+            graph = nav.getGraph();
+            costs = walkedCosts(nav.getStartX(), nav.getStartY());
+        }
+
+        // Replay the text lines written by TextTraceSink (or the original writer) into the trace
+        private void readTrace(Path file) throws IOException {
+            try (BufferedReader in = Files.newBufferedReader(file)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith("Moving to ")) {
+                        int dash = line.indexOf('-', "Moving to ".length() + 1);
+                        trace.movedTo(Integer.parseInt(line.substring("Moving to ".length(), dash)),
+                                Integer.parseInt(line.substring(dash + 1)));
+                    } else if (line.equals("Path is impassable!")) {
+                        trace.pathImpassable();
+                    } else if (line.startsWith("Number ") && line.endsWith(" is chosen!")) {
+                        trace.optionChosen(Integer.parseInt(
+                                line.substring("Number ".length(), line.length() - " is chosen!".length())));
+                    } else if (line.startsWith("Objective ") && line.endsWith(" reached!")) {
+                        trace.objectiveReached(Integer.parseInt(
+                                line.substring("Objective ".length(), line.length() - " reached!".length())));
+                    } else if (!line.isEmpty()) {
+                        throw new IOException(file + ": unexpected trace line \"" + line + "\"");
+                    }
+                }
+            }
+        }
+
+        // Sum the edge weights of the moves, starting a new total after every reached objective
+        private ArrayList<Double> walkedCosts(int x, int y) {
+            ArrayList<Double> result = new ArrayList<>();
+            double total = 0;
+            for (int i = 0; i < trace.size(); i++) {
+                if (trace.tag(i) == BinaryTraceSink.MOVED) {
+                    total += graph.edgeWeight(graph.id(x, y), graph.id(trace.a(i), trace.b(i)));
+                    x = trace.a(i);
+                    y = trace.b(i);
+                } else if (trace.tag(i) == BinaryTraceSink.REACHED) {
+                    result.add(total);
+                    total = 0;
+                }
+            }
+            return result;
+        }
+
+        String failure() {
+            return error == null ? "" : ", failed with " + error;
+        }
+    }
+
+    private static boolean compareCosts(Run a, Run b) {
+        int n = Math.min(a.costs.size(), b.costs.size());
+        for (int i = 0; i < n; i++) {
+            double x = a.costs.get(i), y = b.costs.get(i);
+            if (Math.abs(x - y) > COST_TOLERANCE * Math.max(1, Math.max(Math.abs(x), Math.abs(y)))) {
+                System.out.printf("Cost to objective %d differs: %.9f vs %.9f%n", i + 1, x, y);
+                return false;
+            }
+        }
+        if (a.costs.size() != b.costs.size()) {
+            System.out.printf("Objectives reached differ: %d vs %d%n", a.costs.size(), b.costs.size());
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean compareTraces(Run a, Run b) {
+        int n = Math.min(a.trace.size(), b.trace.size());
+        for (int i = 0; i < n; i++) {
+            if (!a.trace.sameEvent(i, b.trace, i)) {
+                System.out.printf("Traces differ at event %d: \"%s\" vs \"%s\"%n",
+                        i + 1, a.trace.describe(i), b.trace.describe(i));
+                return false;
+            }
+        }
+        if (a.trace.size() != b.trace.size()) {
+            System.out.printf("Trace lengths differ: %d vs %d%n", a.trace.size(), b.trace.size());
+            return false;
+        }
+        return true;
+    }
+
+    private static String[] splitFlags(String value) {
+        return value.isEmpty() ? new String[0] : value.split(",");
+    }
+}
@@ -0,0 +1,14 @@
+public class EuclideanHeuristic implements Heuristic {
+    private final double scale;               // Minimum edge time per unit of straight-line length
+
+    public EuclideanHeuristic(double scale) {
+        this.scale = scale;
+    }
+
+    @Override
+    public double estimate(int x, int y, int tx, int ty) {
+        double dx = x - tx;
+        double dy = y - ty;
+        return scale * Math.sqrt(dx * dx + dy * dy);
+    }
+}
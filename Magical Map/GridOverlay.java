@@ -0,0 +1,141 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+// Types and passability of one run, layered over the immutable node types of the loaded map.
+// The base array is shared by every run on the map and never written. A run only ever changes it in
+// two ways, both recorded here: an option commit turns every node of one type into type 0, and a
+// reveal blocks a node. So the layer is a short list of zeroed types plus bitsets of revealed and
+// blocked node ids. An option trial is a view on top of the layer; it copies nothing, so making and
+// dropping one is O(1).
+public class GridOverlay implements IntPredicate {
+    // Told about every passability change, e.g. to invalidate precomputed search data
+    public interface ChangeListener {
+        void nodeChanged(int id);                               // A reveal blocked the node, or a commit cleared or re-blocked it
+
+        void typeZeroed(int type);                              // Every node of the type is type 0 now
+    }
+
+    private final NodeTypes baseTypes;                          // Type of every node id, CompiledMap.MISSING if none
+    private int[] zeroedTypes = new int[4];                     // Types whose nodes have all been turned into type 0
+    private int zeroedCount;
+    private boolean wallsZeroed;                                // Type 1 is among zeroedTypes
+    private final BitSet revealed = new BitSet();               // Every node a reveal has blocked
+    private final BitSet blocked = new BitSet();                // Revealed nodes that are impassable right now
+    private ChangeListener[] listeners = new ChangeListener[0];
+
+    public GridOverlay(NodeTypes baseTypes) {
+        this.baseTypes = baseTypes;
+    }
+
+    public void addListener(ChangeListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    public boolean exists(int id) {
+        return baseTypes.exists(id);
+    }
+
+    // Current type of an existing node
+    public int type(int id) {
+        int t = baseTypes.type(id);
+        return t != 0 && isZeroed(t) ? 0 : t;
+    }
+
+    // Type 1 = impassable, Type 0 or >=2 = passable unless a reveal has blocked the node
+    public boolean isPassable(int id) {
+        int t = baseTypes.type(id);
+        if (t == 0 || t >= 2) {
+            return !blocked.get(id);                            // Zeroing keeps these passable
+        }
+        if (t == CompiledMap.MISSING) {
+            return false;
+        }
+        return (t == 1 ? wallsZeroed : isZeroed(t)) && !blocked.get(id);
+    }
+
+    @Override
+    public boolean test(int id) {
+        return isPassable(id);
+    }
+
+    public boolean isRevealed(int id) {
+        return revealed.get(id);
+    }
+
+    // Block a node found by revealAround
+    public void reveal(int id) {
+        revealed.set(id);
+        blocked.set(id);
+        fireNodeChanged(id);
+    }
+
+    // Turn every node of the given type into a passable type 0 node, clearing revealed ones too
+    public void zeroType(int type) {
+        if (type != 0 && isZeroed(type)) {
+            return;                                             // No node is of this type any more
+        }
+        for (int id = revealed.nextSetBit(0); id >= 0; id = revealed.nextSetBit(id + 1)) {
+            if (type(id) == type && blocked.get(id)) {
+                blocked.clear(id);
+                fireNodeChanged(id);
+            }
+        }
+        if (type != 0) {
+            if (zeroedCount == zeroedTypes.length) {
+                zeroedTypes = Arrays.copyOf(zeroedTypes, zeroedCount * 2);
+            }
+            zeroedTypes[zeroedCount++] = type;
+            wallsZeroed |= type == 1;
+            for (ChangeListener listener : listeners) {
+                listener.typeZeroed(type);
+            }
+        }
+    }
+
+    // Block every revealed node that is type 0 now, undoing the clearing an option 0 trial implies
+    public void reblockRevealedZeros() {
+        for (int id = revealed.nextSetBit(0); id >= 0; id = revealed.nextSetBit(id + 1)) {
+            if (type(id) == 0 && !blocked.get(id)) {
+                blocked.set(id);
+                fireNodeChanged(id);
+            }
+        }
+    }
+
+    // Passability with every node of type opt cleared. With reblock, revealed type 0 nodes stay
+    // blocked, as they are after an earlier option 0 trial. Reads the layer as it is when tested,
+    // so the layer must not change while the view is in use.
+    public IntPredicate withCleared(int opt, boolean reblock) {
+        return id -> {
+            if (!exists(id)) {
+                return false;
+            }
+            int t = type(id);
+            if (t == opt) {
+                return true;
+            }
+            if (reblock && t == 0 && revealed.get(id)) {
+                return false;
+            }
+            return isPassable(id);
+        };
+    }
+
+    private void fireNodeChanged(int id) {
+        for (ChangeListener listener : listeners) {
+            listener.nodeChanged(id);
+        }
+    }
+
+    // Zeroed types are few (at most one per objective with options), so a scan beats hashing
+    private boolean isZeroed(int type) {
+        for (int i = 0; i < zeroedCount; i++) {
+            if (zeroedTypes[i] == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
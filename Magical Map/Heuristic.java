@@ -0,0 +1,4 @@
+// Lower bound on the travel time from (x,y) to (tx,ty), used to steer A*
+public interface Heuristic {
+    double estimate(int x, int y, int tx, int ty);
+}
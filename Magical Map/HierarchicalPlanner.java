@@ -0,0 +1,476 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+// Hierarchical path planning (HPA*) for large grids. The grid is cut into square clusters. Passable
+// edges that cross a cluster border are grouped into entrances, and each entrance contributes one
+// transition node on each side (two for wide entrances). A cluster's abstract graph holds the costs
+// between its transitions through the cluster plus the crossing edges to its neighbours.
+//
+// A query connects source and target to the transitions of their clusters, searches the abstract
+// graph, then runs an exact search restricted to the clusters the abstract route passes through.
+// The result can be longer than the shortest path when that path leaves the corridor; callers that
+// need the gap measure it against an exact search.
+//
+// Clusters are built on first use and cached. Reveals and option commits reach the planner through
+// GridOverlay.ChangeListener and only invalidate the clusters they touch, and their neighbours when
+// a border cell changes, since both sides of a border must choose the same transitions.
+// Edge u -> v is usable only while v is passable, the same rule dijkstra applies; the adjacency is
+// symmetric, so out-edges double as in-edges.
+public class HierarchicalPlanner implements GridOverlay.ChangeListener {
+    public static final int DEFAULT_CLUSTER_SIZE = 32;
+    private static final int WIDE_ENTRANCE = 6;                 // Entrances this wide get a transition at each end
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    private final CsrGraph graph;
+    private final IntPredicate passable;                        // Current passability of a node id
+    private final int size;                                     // Cluster side in cells
+    private final int clustersY;                                // Clusters along y
+    private final int[] crossStart;                             // crossStart[c]..crossStart[c + 1] is the range of cluster c
+    private final int[] crossEdges;                             // Edges leaving each cluster, by neighbour cluster then edge index
+    private final int[] crossFrom;                              // Source node of each of those edges
+    private final int[][] clusterTypes;                         // Distinct node types found in each cluster
+    private final Cluster[] clusters;                           // Built clusters; null until first use or after a change
+    private final SearchWorkspace local;                        // Searches inside one cluster or a corridor
+    private final SearchWorkspace overview;                     // Searches on the abstract graph
+    private final int[] allowed;                                // Clusters a restricted search may enter, by stamp
+    private int[] chosen = new int[16];                         // Crossing edge slots picked for one border
+    private int allowedStamp;
+    private long clustersBuilt;                                 // Cluster (re)builds so far
+
+    // Transitions of one cluster with the costs between them and the crossing edges out of them
+    private static final class Cluster {
+        final int[] nodes;                                      // Transition node ids
+        final double[] cost;                                    // cost[i * k + j]: nodes[i] to nodes[j] inside the cluster
+        final int[][] exitTo;                                   // Per transition: transitions across the border
+        final double[][] exitCost;
+
+        Cluster(int[] nodes, double[] cost, int[][] exitTo, double[][] exitCost) {
+            this.nodes = nodes;
+            this.cost = cost;
+            this.exitTo = exitTo;
+            this.exitCost = exitCost;
+        }
+
+        int indexOf(int node) {                                 // A cluster has a few dozen transitions at most
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] == node) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    public HierarchicalPlanner(CsrGraph graph, int maxX, int maxY, NodeTypes types, int clusterSize,
+                               IntPredicate passable, int heapArity) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+        }
+        this.graph = graph;
+        this.passable = passable;
+        this.size = clusterSize;
+        this.clustersY = (maxY + clusterSize - 1) / clusterSize;
+        int count = ((maxX + clusterSize - 1) / clusterSize) * clustersY;
+        this.clusters = new Cluster[count];
+        this.allowed = new int[count];
+        this.local = new SearchWorkspace(graph.nodeCount(), heapArity);
+        this.overview = new SearchWorkspace(graph.nodeCount(), heapArity);
+
+        // Crossing edges grouped by cluster, each group sorted by (neighbour cluster, source, edge)
+        crossStart = new int[count + 1];
+        int n = graph.nodeCount();
+        for (int u = 0; u < n; u++) {
+            int c = clusterOf(u);
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                if (clusterOf(graph.target(e)) != c) {
+                    crossStart[c + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < count; c++) {
+            crossStart[c + 1] += crossStart[c];
+        }
+        // Slots within a group are filled in (source, edge) order, so sorting by slot keeps that order
+        long[] keys = new long[crossStart[count]];
+        int[] edgeAt = new int[keys.length];
+        int[] fromAt = new int[keys.length];
+        int[] next = Arrays.copyOf(crossStart, count);
+        for (int u = 0; u < n; u++) {
+            int c = clusterOf(u);
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int d = clusterOf(graph.target(e));
+                if (d != c) {
+                    int slot = next[c]++;
+                    edgeAt[slot] = e;
+                    fromAt[slot] = u;
+                    keys[slot] = ((long) d << 32) | slot;
+                }
+            }
+        }
+        crossEdges = new int[keys.length];
+        crossFrom = new int[keys.length];
+        for (int c = 0; c < count; c++) {
+            Arrays.sort(keys, crossStart[c], crossStart[c + 1]);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            crossEdges[i] = edgeAt[(int) keys[i]];
+            crossFrom[i] = fromAt[(int) keys[i]];
+        }
+
+        // Which types occur where, so that clearing a type only invalidates the clusters holding it
+        clusterTypes = new int[count][];
+        int[] found = new int[count];
+        for (int c = 0; c < count; c++) {
+            clusterTypes[c] = new int[2];
+        }
+        for (int id = 0; id < n; id++) {
+            int t = types.type(id);
+            if (t == CompiledMap.MISSING) {
+                continue;
+            }
+            int c = clusterOf(id);
+            int[] ts = clusterTypes[c];
+            int k = 0;
+            while (k < found[c] && ts[k] != t) {
+                k++;
+            }
+            if (k == found[c]) {
+                if (k == ts.length) {
+                    clusterTypes[c] = ts = Arrays.copyOf(ts, k * 2);
+                }
+                ts[k] = t;
+                found[c]++;
+            }
+        }
+        for (int c = 0; c < count; c++) {
+            clusterTypes[c] = Arrays.copyOf(clusterTypes[c], found[c]);
+        }
+    }
+
+    public long clustersBuilt() {
+        return clustersBuilt;
+    }
+
+    // Path from source to target, or null if the abstract graph has no route between them; callers
+    // then fall back to an exact search, which also covers starts that only an impassable border
+    // cell connects to the next cluster. The work is counted in ws's stats.
+    public ArrayList<int[]> findPath(SearchWorkspace ws, int source, int target) {
+        SearchStats stats = ws.stats();
+        stats.searches++;
+        if (source == target) {
+            ws.reset();
+            ws.set(source, 0.0, -1);
+            return ws.buildPath(source, graph);
+        }
+        if (!passable.test(target)) {
+            return new ArrayList<>();                           // The target can never be entered
+        }
+
+        int cs = clusterOf(source), ct = clusterOf(target);
+        Cluster start = cluster(cs, stats);
+        Cluster end = cluster(ct, stats);
+
+        // Costs from the source to its cluster's transitions, and straight to the target if they share it
+        allowOnly(cs);
+        search(local, source, -1, stats);
+        double[] fromSource = new double[start.nodes.length];
+        for (int i = 0; i < fromSource.length; i++) {
+            fromSource[i] = local.dist(start.nodes[i]);
+        }
+        double direct = cs == ct ? local.dist(target) : INF;
+
+        // Costs from the target's cluster transitions to the target; the same backwards on a symmetric graph
+        // as long as every node entered is passable, which holds for the target and for transitions
+        allowOnly(ct);
+        search(local, target, -1, stats);
+        double[] toTarget = new double[end.nodes.length];
+        for (int i = 0; i < toTarget.length; i++) {
+            toTarget[i] = local.dist(end.nodes[i]);
+        }
+
+        // Dijkstra on the abstract graph; its node ids are the grid's own
+        overview.reset();
+        IndexedPriorityQueue pq = overview.frontier();
+        overview.set(source, 0.0, -1);
+        pq.add(source, 0.0);
+        while (!pq.isEmpty()) {
+            int u = pq.poll();
+            stats.settled++;
+            if (u == target) {
+                break;
+            }
+            double du = overview.dist(u);
+            if (u == source) {
+                for (int i = 0; i < fromSource.length; i++) {
+                    relax(u, start.nodes[i], du + fromSource[i], stats);
+                }
+                relax(u, target, du + direct, stats);
+                if (start.indexOf(u) < 0) {
+                    continue;                                   // The source is not a transition itself
+                }
+            }
+            int cu = clusterOf(u);
+            Cluster c = cluster(cu, stats);
+            int i = c.indexOf(u);
+            if (i < 0) {
+                continue;
+            }
+            int k = c.nodes.length;
+            for (int j = 0; j < k; j++) {
+                if (j != i) {
+                    relax(u, c.nodes[j], du + c.cost[i * k + j], stats);
+                }
+            }
+            for (int x = 0; x < c.exitTo[i].length; x++) {
+                relax(u, c.exitTo[i][x], du + c.exitCost[i][x], stats);
+            }
+            if (cu == ct) {
+                relax(u, target, du + toTarget[end.indexOf(u)], stats);
+            }
+        }
+        if (!overview.visited(target)) {
+            return null;
+        }
+
+        // Refine: an exact search confined to the clusters along the abstract route
+        allowedStamp++;
+        for (int u = target; u != -1; u = overview.parent(u)) {
+            allowed[clusterOf(u)] = allowedStamp;
+        }
+        if (!search(ws, source, target, stats)) {
+            return null;
+        }
+        return ws.buildPath(target, graph);
+    }
+
+    // A reveal or a commit changed the node's passability
+    @Override
+    public void nodeChanged(int id) {
+        int c = clusterOf(id);
+        clusters[c] = null;
+        for (int e = graph.firstEdge(id); e < graph.endEdge(id); e++) {
+            clusters[clusterOf(graph.target(e))] = null;        // A border cell also changes the neighbour's entrances
+        }
+    }
+
+    // Every node of the type became type 0; only types that start out impassable change passability
+    @Override
+    public void typeZeroed(int type) {
+        if (type == 0 || type >= 2) {
+            return;                                             // Their revealed nodes arrive through nodeChanged
+        }
+        for (int c = 0; c < clusters.length; c++) {
+            if (contains(clusterTypes[c], type)) {
+                clusters[c] = null;
+                for (int i = crossStart[c]; i < crossStart[c + 1]; i++) {
+                    clusters[clusterOf(graph.target(crossEdges[i]))] = null;
+                }
+            }
+        }
+    }
+
+    // Internal helper methods
+
+    private int clusterOf(int id) {
+        return (graph.xOf(id) / size) * clustersY + graph.yOf(id) / size;
+    }
+
+    private void relax(int from, int to, double d, SearchStats stats) {
+        if (d < overview.dist(to)) {
+            stats.relaxed++;
+            if (overview.frontier().contains(to)) {
+                stats.decreases++;
+            } else {
+                stats.pushes++;
+            }
+            overview.set(to, d, from);
+            overview.frontier().addOrDecrease(to, d);
+        }
+    }
+
+    private void allowOnly(int c) {
+        allowedStamp++;
+        allowed[c] = allowedStamp;
+    }
+
+    // Dijkstra from source inside the allowed clusters; stops at target unless it is -1.
+    // Returns true if the target was reached.
+    private boolean search(SearchWorkspace ws, int source, int target, SearchStats stats) {
+        ws.reset();
+        IndexedPriorityQueue pq = ws.frontier();
+        ws.set(source, 0.0, -1);
+        pq.add(source, 0.0);
+        stats.pushes++;
+        while (!pq.isEmpty()) {
+            int u = pq.poll();
+            stats.settled++;
+            if (u == target) {
+                return true;
+            }
+            double du = ws.dist(u);
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int v = graph.target(e);
+                if (allowed[clusterOf(v)] != allowedStamp || !passable.test(v)) {
+                    continue;
+                }
+                stats.relaxed++;
+                double ndist = du + graph.weight(e);
+                if (ndist < ws.dist(v)) {
+                    if (pq.contains(v)) {
+                        stats.decreases++;
+                    } else {
+                        stats.pushes++;
+                    }
+                    ws.set(v, ndist, u);
+                    pq.addOrDecrease(v, ndist);
+                }
+            }
+        }
+        return false;
+    }
+
+    private Cluster cluster(int c, SearchStats stats) {
+        Cluster cluster = clusters[c];
+        if (cluster == null) {
+            cluster = build(c, stats);
+            clusters[c] = cluster;
+        }
+        return cluster;
+    }
+
+    // Choose the cluster's transitions on every border, then cost them against each other
+    private Cluster build(int c, SearchStats stats) {
+        clustersBuilt++;
+        int[] nodes = new int[8];
+        int k = 0;
+        int[][] exitTo = new int[8][];
+        double[][] exitCost = new double[8][];
+        for (int i = crossStart[c]; i < crossStart[c + 1]; ) {
+            int d = clusterOf(graph.target(crossEdges[i]));
+            int end = i;
+            while (end < crossStart[c + 1] && clusterOf(graph.target(crossEdges[end])) == d) {
+                end++;
+            }
+            // Both sides pick from the lower cluster's list, so they agree on the transitions
+            int picked = c < d ? entrances(i, end) : borderEntrances(d, c);
+            for (int p = 0; p < picked; p++) {
+                int e = crossEdges[chosen[p]];
+                int u = c < d ? crossFrom[chosen[p]] : graph.target(e);
+                int v = c < d ? graph.target(e) : crossFrom[chosen[p]];
+                int t = 0;
+                while (t < k && nodes[t] != u) {
+                    t++;
+                }
+                if (t == k) {
+                    if (k == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, k * 2);
+                        exitTo = Arrays.copyOf(exitTo, k * 2);
+                        exitCost = Arrays.copyOf(exitCost, k * 2);
+                    }
+                    nodes[k] = u;
+                    exitTo[k] = new int[0];
+                    exitCost[k] = new double[0];
+                    k++;
+                }
+                int x = exitTo[t].length;
+                exitTo[t] = Arrays.copyOf(exitTo[t], x + 1);
+                exitCost[t] = Arrays.copyOf(exitCost[t], x + 1);
+                exitTo[t][x] = v;
+                exitCost[t][x] = graph.weight(e);             // Crossing edges have the same time both ways
+            }
+            i = end;
+        }
+
+        nodes = Arrays.copyOf(nodes, k);
+        double[] cost = new double[k * k];
+        allowOnly(c);
+        for (int i = 0; i < k; i++) {
+            search(local, nodes[i], -1, stats);
+            for (int j = 0; j < k; j++) {
+                cost[i * k + j] = local.dist(nodes[j]);
+            }
+        }
+        return new Cluster(nodes, cost, Arrays.copyOf(exitTo, k), Arrays.copyOf(exitCost, k));
+    }
+
+    // Entrances between cluster lo and its neighbour hi, picked from lo's crossing edges to hi
+    private int borderEntrances(int lo, int hi) {
+        int from = crossStart[lo];
+        while (clusterOf(graph.target(crossEdges[from])) != hi) {
+            from++;
+        }
+        int to = from;
+        while (to < crossStart[lo + 1] && clusterOf(graph.target(crossEdges[to])) == hi) {
+            to++;
+        }
+        return entrances(from, to);
+    }
+
+    // Split the crossing edges in slots [from, to) into runs of usable edges from neighbouring cells and
+    // pick the middle edge of each run, or both end edges of a wide one, into chosen. Returns the number picked.
+    private int entrances(int from, int to) {
+        int picked = 0;
+        int runStart = -1, runLength = 0, last = -1;
+        for (int i = from; i <= to; i++) {
+            boolean usable = i < to && isUsable(i);
+            boolean joins = usable && runLength > 0 && adjacent(crossFrom[last], crossFrom[i]);
+            if (runLength > 0 && !joins) {
+                // Close the current run
+                if (picked + 2 > chosen.length) {
+                    chosen = Arrays.copyOf(chosen, chosen.length * 2);
+                }
+                if (runLength >= WIDE_ENTRANCE) {
+                    chosen[picked++] = runStart;
+                    chosen[picked++] = last;
+                } else {
+                    chosen[picked++] = middle(runStart, last);
+                }
+                runLength = 0;
+            }
+            if (usable) {
+                if (runLength == 0) {
+                    runStart = i;
+                }
+                runLength++;
+                last = i;
+            }
+        }
+        return picked;
+    }
+
+    // Index of the usable edge halfway through a run; runs are short, so count along it
+    private int middle(int runStart, int last) {
+        int count = 0;
+        for (int i = runStart; i <= last; i++) {
+            if (isUsable(i)) {
+                count++;
+            }
+        }
+        int half = count / 2;
+        for (int i = runStart; i <= last; i++) {
+            if (isUsable(i) && half-- == 0) {
+                return i;
+            }
+        }
+        return last;
+    }
+
+    // A crossing edge can carry an entrance if both of its ends are passable
+    private boolean isUsable(int slot) {
+        return passable.test(crossFrom[slot]) && passable.test(graph.target(crossEdges[slot]));
+    }
+
+    private boolean adjacent(int a, int b) {
+        return Math.abs(graph.xOf(a) - graph.xOf(b)) <= 1 && Math.abs(graph.yOf(a) - graph.yOf(b)) <= 1;
+    }
+
+    private static boolean contains(int[] values, int v) {
+        for (int x : values) {
+            if (x == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
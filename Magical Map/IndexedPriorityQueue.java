@@ -0,0 +1,141 @@
+import java.util.Arrays;
+
+public class IndexedPriorityQueue {
+    private final int arity;                  // Number of children per heap node (2, 4 or 8)
+    private final int[] heap;                 // Node ids laid out as a d-ary heap
+    private final double[] priority;          // Priority of every node id currently in the queue
+    private final int[] position;             // Heap slot of every node id, or -1 if absent
+    private int size;                         // Current number of elements in the priority queue
+
+    public IndexedPriorityQueue(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.priority = new double[capacity];
+        this.position = new int[capacity];
+        Arrays.fill(position, -1);            // Every node starts outside the queue
+        this.size = 0;
+    }
+
+    public void add(int node, double p) {
+        priority[node] = p;                   // Remember the priority of the new node
+        heap[size] = node;                    // Place the new node at the end of the heap
+        position[node] = size;
+        size++;
+        siftUp(size - 1);                     // Restore heap order by sifting up if necessary
+    }
+
+    // Lower the priority of a node that is already in the queue
+    public void decreaseKey(int node, double p) {
+        priority[node] = p;
+        siftUp(position[node]);
+    }
+
+    // Insert the node, or lower its priority if it is already queued with a larger one
+    public void addOrDecrease(int node, double p) {
+        if (position[node] < 0) {
+            add(node, p);
+        } else if (p < priority[node]) {
+            decreaseKey(node, p);
+        }
+    }
+
+    public int poll() {
+        if (isEmpty()) {
+            return -1;                        // If empty, return -1 since there's no node to poll
+        }
+        int result = heap[0];                 // The top of the heap (index 0) has the smallest priority
+        position[result] = -1;
+        size--;                               // Decrement the size since we're removing the top element
+        if (size > 0) {
+            heap[0] = heap[size];             // Move the last node in the heap to the top
+            position[heap[0]] = 0;
+            siftDown(0);                      // Restore heap order by sifting down from the root
+        }
+        return result;                        // Return the removed node id
+    }
+
+    public int peek() {
+        return isEmpty() ? -1 : heap[0];
+    }
+
+    public double peekPriority() {
+        return isEmpty() ? Double.POSITIVE_INFINITY : priority[heap[0]];
+    }
+
+    public boolean contains(int node) {
+        return position[node] >= 0;
+    }
+
+    public double priorityOf(int node) {      // Only meaningful while the node is queued
+        return priority[node];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;                     // True if no elements are present
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        // Only the queued nodes need their position reset, so this is O(size)
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    // Internal helper methods
+
+    private void siftUp(int idx) {
+        int node = heap[idx];                 // The node that may need to be moved up
+        double p = priority[node];
+        while (idx > 0) {
+            int parent = (idx - 1) / arity;   // Parent index in a d-ary heap
+            int parentNode = heap[parent];
+            if (p >= priority[parentNode]) {
+                break;
+            }
+            heap[idx] = parentNode;           // Move the parent down
+            position[parentNode] = idx;
+            idx = parent;
+        }
+        heap[idx] = node;                     // Place the node in its correct position
+        position[node] = idx;
+    }
+
+    private void siftDown(int idx) {
+        int node = heap[idx];                 // The node that needs to be moved down if necessary
+        double p = priority[node];
+        while (true) {
+            int first = idx * arity + 1;      // First child index
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int smallest = first;
+            double smallestP = priority[heap[first]];
+            // Pick the child with the smallest priority
+            for (int c = first + 1; c < last; c++) {
+                double cp = priority[heap[c]];
+                if (cp < smallestP) {
+                    smallest = c;
+                    smallestP = cp;
+                }
+            }
+            // If the node is already smaller or equal than the smallest child, stop
+            if (smallestP >= p) {
+                break;
+            }
+            heap[idx] = heap[smallest];
+            position[heap[idx]] = idx;
+            idx = smallest;                   // Move down to the child's position and continue
+        }
+        heap[idx] = node;                     // Place the node in its final position
+        position[node] = idx;
+    }
+}
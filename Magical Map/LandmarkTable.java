@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+// Travel times from k landmarks to every node, for ALT lower bounds: by the triangle inequality
+// |d(L,t) - d(L,v)| <= d(v,t) for every landmark L, as the graph is symmetric. The times are taken
+// over the whole loaded graph, every node passable, so the bounds hold whatever a run blocks or
+// clears. Landmarks are picked by farthest-point selection, each one the node farthest from all
+// landmarks chosen before it. The times are kept as doubles: rounded to float they would no
+// longer satisfy the triangle inequality exactly, and A* would settle nodes more than once.
+//
+// The table is kept in a file next to the map and memory-mapped, so later runs on the same map skip
+// the k one-to-all searches. A file built for another map or landmark count is rebuilt. The map is
+// identified by a fingerprint the caller supplies: the checksum a compiled or tiled map records in
+// its header, or fingerprint() of a graph read from text. Opening the file only reads its header;
+// the payload checksum, which reads every page, is only checked when asked for.
+//
+// Layout (little-endian, every section starts on an 8-byte boundary):
+//   header     magic, version, nodeCount, landmarkCount, edgeCount, reserved, map fingerprint,
+//              payload CRC32C, padding up to HEADER_SIZE
+//   landmarks  int[landmarkCount]
+//   times      double[nodeCount * landmarkCount], the k times of a node next to each other,
+//              infinite where the landmark cannot reach the node
+public class LandmarkTable {
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private static final int MAGIC = 0x4D4C5A4F;              // "OZLM" read as little-endian bytes
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int HEAP_ARITY = 4;
+    private static final double SLACK = 1 - 1e-9;             // Shrinks bounds so rounding never overestimates
+    private static final int CHUNK = 1 << 16;                 // Bytes hashed per call when fingerprinting the graph
+
+    private final int count;                                  // Landmarks per node
+    private final int[] landmarks;                            // Node id of every landmark
+    private final DoubleBuffer times;
+
+    private LandmarkTable(int[] landmarks, DoubleBuffer times) {
+        this.count = landmarks.length;
+        this.landmarks = landmarks;
+        this.times = times;
+    }
+
+    public int landmarkCount() {
+        return count;
+    }
+
+    public int landmark(int i) {
+        return landmarks[i];
+    }
+
+    // Lower bound on the travel time between two node ids
+    public double lowerBound(int v, int t) {
+        int rv = v * count, rt = t * count;
+        double best = 0;
+        for (int i = 0; i < count; i++) {
+            double dv = times.get(rv + i);
+            double dt = times.get(rt + i);
+            if (dv != Double.POSITIVE_INFINITY && dt != Double.POSITIVE_INFINITY) {
+                best = Math.max(best, Math.abs(dt - dv));
+            }
+        }
+        return best * SLACK;
+    }
+
+    // The table in the given file if it was built for this map and landmark count, otherwise a new
+    // one written to that file. With no file name the table is built on the heap only. With verify
+    // the payload of an existing file is checked against its checksum.
+    public static LandmarkTable load(String filename, CsrGraph graph, int count, long fingerprint, boolean verify)
+            throws IOException {
+        if (count < 1) {
+            throw new IllegalArgumentException("Landmark count must be positive: " + count);
+        }
+        if (filename != null && Files.isRegularFile(Path.of(filename))) {
+            LandmarkTable table = open(filename, graph, count, fingerprint, verify);
+            if (table != null) {
+                return table;
+            }
+        }
+        return build(filename, graph, count, fingerprint);
+    }
+
+    // Internal helper methods
+
+    private static LandmarkTable open(String filename, CsrGraph graph, int count, long fingerprint,
+                                      boolean verify) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                    || header.getInt(8) != graph.nodeCount() || header.getInt(12) != count
+                    || header.getInt(16) != graph.edgeCount() || header.getLong(24) != fingerprint
+                    || size != fileSize(graph.nodeCount(), count)) {
+                return null;                                  // Built for another map or landmark count
+            }
+            MappedByteBuffer payload = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size - HEADER_SIZE);
+            payload.order(ByteOrder.LITTLE_ENDIAN);
+            if (verify) {
+                CRC32C crc = new CRC32C();
+                crc.update(payload.duplicate());
+                if (crc.getValue() != header.getLong(32)) {
+                    return null;                              // Damaged since it was written
+                }
+            }
+            return wrap(payload, count, graph.nodeCount());
+        }
+    }
+
+    private static LandmarkTable build(String filename, CsrGraph graph, int count, long fingerprint)
+            throws IOException {
+        int n = graph.nodeCount();
+        long size = fileSize(n, count);
+        if (size - HEADER_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Landmark table of " + size + " bytes exceeds the 2 GB mapping limit");
+        }
+        FileChannel ch = null;
+        ByteBuffer payload;
+        if (filename != null) {
+            ch = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            payload = ch.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, size - HEADER_SIZE);
+        } else {
+            payload = ByteBuffer.allocate((int) (size - HEADER_SIZE));
+        }
+        try {
+            payload.order(ByteOrder.LITTLE_ENDIAN);
+            int[] landmarks = new int[count];
+            select(graph, landmarks, payload);
+            for (int i = 0; i < count; i++) {
+                payload.putInt(4 * i, landmarks[i]);
+            }
+            if (ch != null) {
+                CRC32C crc = new CRC32C();
+                crc.update(payload.duplicate().clear());
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(count)
+                        .putInt(graph.edgeCount()).putInt(0)
+                        .putLong(fingerprint).putLong(crc.getValue());
+                header.clear();
+                ((MappedByteBuffer) payload).force();
+                ch.write(header, 0);                          // Last, so a torn write never looks valid
+            }
+            return wrap(payload, count, n);
+        } finally {
+            if (ch != null) {
+                ch.close();                                   // The mapping stays valid after closing
+            }
+        }
+    }
+
+    // Pick the landmarks and fill their columns of the times section
+    private static void select(CsrGraph graph, int[] landmarks, ByteBuffer payload) {
+        int n = graph.nodeCount();
+        int count = landmarks.length;
+        long timesAt = align(4L * count);
+        double[] dist = new double[n];
+        double[] nearest = new double[n];                     // Time to the closest landmark so far
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        IndexedPriorityQueue pq = new IndexedPriorityQueue(n, HEAP_ARITY);
+
+        // The first landmark is the node farthest from one near the middle of the grid
+        searchAll(graph, seed(graph), dist, pq);
+        int next = farthest(graph, dist);
+        for (int i = 0; i < count; i++) {
+            landmarks[i] = next;
+            searchAll(graph, next, dist, pq);
+            for (int v = 0; v < n; v++) {
+                payload.putDouble((int) (timesAt + 8L * ((long) v * count + i)), dist[v]);
+                nearest[v] = Math.min(nearest[v], dist[v]);
+            }
+            next = farthest(graph, nearest);
+        }
+    }
+
+    // Dijkstra from one node to every node it can reach
+    private static void searchAll(CsrGraph graph, int source, double[] dist, IndexedPriorityQueue pq) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        pq.add(source, 0);
+        while (!pq.isEmpty()) {
+            int u = pq.poll();
+            double du = dist[u];
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int v = graph.target(e);
+                double nd = du + graph.weight(e);
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    pq.addOrDecrease(v, nd);
+                }
+            }
+        }
+    }
+
+    // The node with the largest finite time; unreachable nodes never become landmarks
+    private static int farthest(CsrGraph graph, double[] time) {
+        int best = -1;
+        for (int v = 0; v < time.length; v++) {
+            if (time[v] != Double.POSITIVE_INFINITY && graph.firstEdge(v) < graph.endEdge(v)
+                    && (best < 0 || time[v] > time[best])) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    // The first node with an edge at or after the middle of the grid, wrapping around
+    private static int seed(CsrGraph graph) {
+        int n = graph.nodeCount();
+        for (int k = 0; k < n; k++) {
+            int v = (n / 2 + k) % n;
+            if (graph.firstEdge(v) < graph.endEdge(v)) {
+                return v;
+            }
+        }
+        throw new IllegalStateException("Landmarks need a map with at least one edge");
+    }
+
+    private static LandmarkTable wrap(ByteBuffer payload, int count, int nodeCount) {
+        int[] landmarks = new int[count];
+        for (int i = 0; i < count; i++) {
+            landmarks[i] = payload.getInt(4 * i);
+        }
+        int timesAt = (int) align(4L * count);
+        ByteBuffer section = payload.duplicate().position(timesAt).limit(timesAt + 8 * nodeCount * count)
+                .slice().order(ByteOrder.LITTLE_ENDIAN);
+        return new LandmarkTable(landmarks, section.asDoubleBuffer());
+    }
+
+    private static long fileSize(int nodeCount, int count) {
+        return HEADER_SIZE + align(4L * count) + 8L * nodeCount * count;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    // CRC32C of the adjacency, for a graph whose file records no checksum. Read through the edge
+    // accessors, so it is one pass over every edge; compute it once per loaded map.
+    public static long fingerprint(CsrGraph graph) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+        for (int u = 0; u < graph.nodeCount(); u++) {
+            buf = put(crc, buf, 4).putInt(graph.endEdge(u) - graph.firstEdge(u));
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                buf = put(crc, buf, 12).putInt(graph.target(e));
+                buf.putDouble(graph.weight(e));
+            }
+        }
+        buf.flip();
+        crc.update(buf);
+        return crc.getValue();
+    }
+
+    // The buffer with room for the given bytes, hashing what it held if it was full
+    private static ByteBuffer put(CRC32C crc, ByteBuffer buf, int bytes) {
+        if (buf.remaining() < bytes) {
+            buf.flip();
+            crc.update(buf);
+            buf.clear();
+        }
+        return buf;
+    }
+}
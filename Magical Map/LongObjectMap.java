@@ -0,0 +1,205 @@
+import java.util.Arrays;
+
+// Open-addressing map from long keys to objects, with no boxing; suits packed (x, y) coordinate keys.
+// Key 0 marks a free slot in the table, so a mapping for 0 is kept on the side. Same probing,
+// deletion and slot iteration as OpenHashMap:
+//   for (int s = map.firstSlot(); s >= 0; s = map.nextSlot(s)) { map.keyAt(s); map.valueAt(s); }
+public class LongObjectMap<V> {
+    private long[] keys;                      // 0 marks a free slot
+    private Object[] values;
+    private int mask;                         // Table length - 1
+    private int size;                         // Entries in the table, not counting key 0
+    private int threshold;                    // Size at which the table doubles
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    public LongObjectMap() {
+        this(0);
+    }
+
+    // Presized so that expectedSize entries fit without a resize
+    public LongObjectMap(int expectedSize) {
+        allocate(Hashing.capacityFor(expectedSize));
+    }
+
+    // Pack a coordinate pair into one key
+    public static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public V get(long key) {
+        return getOrDefault(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = find(key);
+        return slot >= 0 ? (V) values[slot] : defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    // Insert or replace; returns the previous value, or null if the key was absent
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == 0) {
+            V old = zeroValue;
+            hasZeroKey = true;
+            zeroValue = value;
+            return old;
+        }
+        int slot = Hashing.mix(key) & mask;
+        for (long k; (k = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            if (k == key) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+        }
+        insertAt(slot, key, value);
+        return null;
+    }
+
+    // Insert only if the key is absent; returns the value now mapped to the key
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(long key, V value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                zeroValue = value;
+            }
+            return zeroValue;
+        }
+        int slot = Hashing.mix(key) & mask;
+        for (long k; (k = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            if (k == key) {
+                return (V) values[slot];
+            }
+        }
+        insertAt(slot, key, value);
+        return value;
+    }
+
+    // Remove the key; returns its value, or null if it was absent
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V old = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            return old;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V old = (V) values[slot];
+        removeAt(slot);
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = null;
+    }
+
+    // Slot iteration; key 0, if present, uses the slot just past the table
+
+    public int firstSlot() {
+        return nextSlot(-1);
+    }
+
+    public int nextSlot(int slot) {
+        for (int s = slot + 1; s <= mask; s++) {
+            if (keys[s] != 0) {
+                return s;
+            }
+        }
+        return hasZeroKey && slot <= mask ? mask + 1 : -1;
+    }
+
+    public long keyAt(int slot) {
+        return slot > mask ? 0 : keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        return slot > mask ? zeroValue : (V) values[slot];
+    }
+
+    // Internal helper methods
+
+    private int find(long key) {
+        int slot = Hashing.mix(key) & mask;
+        for (long k; (k = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            if (k == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insertAt(int slot, long key, Object value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(Hashing.grow(mask + 1));
+        }
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the hole if their home allows it
+    private void removeAt(int slot) {
+        int gap = slot;
+        for (int i = (slot + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int home = Hashing.mix(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+        size--;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = Hashing.resizeThreshold(capacity);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k != 0) {
+                int slot = Hashing.mix(k) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = k;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
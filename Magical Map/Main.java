@@ -1,18 +1,124 @@
-
 import java.io.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
 
 public class Main {
     public static void main(String[] args) {
+        // Split the command line into file names and --flags
+        ArrayList<String> files = new ArrayList<>();
+        ArrayList<String> flags = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                flags.add(arg);
+            } else {
+                files.add(arg);
+            }
+        }
+
+        // Compile mode: nodes and edges, or a tiled map, then the binary map to write.
+        if (flags.contains("--compile")) {
+            try {
+                OzNavigator nav = new OzNavigator(null);
+                if (TiledMap.isTiledMap(files.get(0))) {
+                    nav.readTiledMap(files.get(0));
+                    nav.compileMap(files.get(1));
+                    return;
+                }
+                nav.readNodeFile(files.get(0));
+                nav.readEdgesFile(files.get(1));
+                nav.compileMap(files.get(2));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        // Tile mode: nodes, edges and the tiled map to write.
+        if (flags.contains("--tile")) {
+            try {
+                OzNavigator nav = new OzNavigator(null);
+                nav.readNodeFile(files.get(0));
+                nav.readEdgesFile(files.get(1));
+                int tileSize = TiledMap.DEFAULT_TILE_SIZE;
+                for (String arg : flags) {
+                    if (arg.startsWith("--tile-size=")) {
+                        tileSize = Integer.parseInt(arg.substring("--tile-size=".length()));
+                    }
+                }
+                nav.tileMap(files.get(2), tileSize);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        // A compiled or tiled map replaces the node and edge files: map, objectives, output.
+        boolean tiled = TiledMap.isTiledMap(files.get(0));
+        boolean compiled = tiled || CompiledMap.isCompiledMap(files.get(0));
+
+        // Batch mode: the map, a directory or manifest of objective files, and an output directory.
+        if (flags.contains("--batch")) {
+            try {
+                OzNavigator map = new OzNavigator(null);
+                for (String arg : flags) {
+                    if (!arg.equals("--batch") && !arg.startsWith("--threads=") && !applyFlag(map, arg)) {
+                        System.err.println("Unknown option: " + arg);
+                        return;
+                    }
+                }
+                if (tiled) {
+                    map.readTiledMap(files.get(0));
+                } else if (compiled) {
+                    map.readCompiledMap(files.get(0));
+                } else {
+                    map.readNodeFile(files.get(0));
+                    map.readEdgesFile(files.get(1));
+                }
+                int next = compiled ? 1 : 2;
+                BatchRunner batch = new BatchRunner(map, flags);
+                ArrayList<Path> inputs = new ArrayList<>();         // Map files and the manifest, never written
+                for (int k = 0; k <= next; k++) {
+                    inputs.add(Path.of(files.get(k)));
+                }
+                int failed = batch.run(BatchRunner.scenarioFiles(files.get(next)), Path.of(files.get(next + 1)), inputs);
+                if (failed > 0) {
+                    System.err.println(failed + " scenario(s) failed.");
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        String outputFile = files.get(compiled ? 2 : 3);
+
         try (
-                BufferedWriter writer = new BufferedWriter(new FileWriter(args[3])); // File output.
+                TraceSink trace = flags.contains("--trace=binary")                   // File output.
+                        ? new BinaryTraceSink(outputFile) : new TextTraceSink(outputFile);
         ) {
-            // Pass BufferedWriter to OzNavigator.
-            OzNavigator nav = new OzNavigator(writer);
+            // Pass the trace sink to OzNavigator.
+            OzNavigator nav = new OzNavigator(trace);
+
+            // Optional flags, e.g. --search=astar --heuristic=euclidean --trace=binary --metrics=csv
+            for (String arg : flags) {
+                if (!applyFlag(nav, arg)) {
+                    System.err.println("Unknown option: " + arg);
+                    return;
+                }
+            }
 
-            //Read input files with BufferedReader.
-            nav.readNodeFile(args[0]);
-            nav.readEdgesFile(args[1]);
-            nav.readObjFile(args[2]);
+            //Read input files.
+            if (tiled) {
+                nav.readTiledMap(files.get(0));
+                nav.readObjFile(files.get(1));
+            } else if (compiled) {
+                nav.readCompiledMap(files.get(0));
+                nav.readObjFile(files.get(1));
+            } else {
+                nav.readNodeFile(files.get(0));
+                nav.readEdgesFile(files.get(1));
+                nav.readObjFile(files.get(2));
+            }
 
             // Write output.
             nav.writeOutput();
@@ -20,8 +126,44 @@ public class Main {
             // Run the main logic.
             nav.run();
 
+            // Per-objective metrics go next to the output file, e.g. output.txt.metrics.csv
+            if (nav.getMetrics() != null) {
+                String format = flags.contains("--metrics=json") ? "json" : "csv";
+                nav.getMetrics().write(outputFile + ".metrics." + format);
+            }
+
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    // Apply one navigator flag; returns false if the flag is not known
+    static boolean applyFlag(OzNavigator nav, String arg) {
+        if (arg.equals("--search=dijkstra")) {
+            nav.setSearchEngine(OzNavigator.SearchEngine.DIJKSTRA);
+        } else if (arg.equals("--search=astar")) {
+            nav.setSearchEngine(OzNavigator.SearchEngine.ASTAR);
+        } else if (arg.equals("--search=bidirectional")) {
+            nav.setSearchEngine(OzNavigator.SearchEngine.BIDIRECTIONAL);
+        } else if (arg.equals("--search=hierarchical")) {
+            nav.setSearchEngine(OzNavigator.SearchEngine.HIERARCHICAL);
+        } else if (arg.startsWith("--cluster-size=")) {
+            nav.setClusterSize(Integer.parseInt(arg.substring("--cluster-size=".length())));
+        } else if (arg.startsWith("--path-cache=")) {
+            nav.setPathCacheCapacity(Integer.parseInt(arg.substring("--path-cache=".length())));
+        } else if (arg.startsWith("--landmarks=")) {
+            nav.setLandmarkCount(Integer.parseInt(arg.substring("--landmarks=".length())));
+        } else if (arg.startsWith("--tile-cache=")) {
+            nav.setTileCache(Integer.parseInt(arg.substring("--tile-cache=".length())));
+        } else if (arg.equals("--verify-map")) {
+            nav.setVerifyMap(true);
+        } else if (arg.startsWith("--heuristic=")) {
+            nav.setHeuristic(arg.substring("--heuristic=".length()));
+        } else if (arg.equals("--metrics=csv") || arg.equals("--metrics=json")) {
+            nav.setMetrics(new NavigationMetrics());
+        } else if (!arg.equals("--trace=text") && !arg.equals("--trace=binary")) {
+            return false;                                      // The trace flags only pick the sink in main
+        }
+        return true;
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+// Writes a seeded random map in the node, edge and objective file formats, for testing at scale.
+//
+// Usage: java MapGenerator <output dir> [--flag=value ...]
+//   --seed=1            random seed; the same seed and flags always give the same files
+//   --size=100x100      grid width x height
+//   --obstacles=0.1     share of cells that are walls (type 1)
+//   --fog=0.15          share of cells that are fog (type >= 2)
+//   --fog-types=2,3,4   fog types, optionally weighted as type:weight (e.g. 2:5,3:1)
+//   --objectives=10     number of objective lines
+//   --options=2         option types offered per objective line (drawn from 1 and the fog types)
+//   --weights=uniform:1:10   travel times: uniform:min:max, exp:min:mean or const:value
+//   --decimals=6        decimals written per travel time
+//   --radius=3          line of sight radius
+//   --diagonal          also link diagonal neighbours (travel time scaled by sqrt 2)
+public class MapGenerator {
+    private long seed = 1;
+    private int width = 100, height = 100;
+    private double obstacles = 0.1;
+    private double fog = 0.15;
+    private int[] fogTypes = {2, 3, 4};
+    private double[] fogWeights = {1, 1, 1};
+    private int objectiveCount = 10;
+    private int optionsPerObjective = 2;
+    private String[] weights = {"uniform", "1", "10"};
+    private int decimals = 6;
+    private int radius = 3;
+    private boolean diagonal;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java MapGenerator <output dir> [--flag=value ...]");
+            return;
+        }
+        MapGenerator gen = new MapGenerator();
+        for (int i = 1; i < args.length; i++) {
+            gen.applyFlag(args[i]);
+        }
+        File dir = new File(args[0]);
+        dir.mkdirs();
+        gen.write(new File(dir, "nodes.txt"), new File(dir, "edges.txt"), new File(dir, "objectives.txt"));
+    }
+
+    private void applyFlag(String arg) {
+        int eq = arg.indexOf('=');
+        String name = eq < 0 ? arg : arg.substring(0, eq);
+        String value = eq < 0 ? "" : arg.substring(eq + 1);
+        switch (name) {
+            case "--seed": seed = Long.parseLong(value); break;
+            case "--size": {
+                String[] wh = value.split("x");
+                width = Integer.parseInt(wh[0]);
+                height = Integer.parseInt(wh[1]);
+                break;
+            }
+            case "--obstacles": obstacles = Double.parseDouble(value); break;
+            case "--fog": fog = Double.parseDouble(value); break;
+            case "--fog-types": {
+                String[] parts = value.split(",");
+                fogTypes = new int[parts.length];
+                fogWeights = new double[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    String[] tw = parts[i].split(":");
+                    fogTypes[i] = Integer.parseInt(tw[0]);
+                    fogWeights[i] = tw.length > 1 ? Double.parseDouble(tw[1]) : 1;
+                    if (fogTypes[i] < 2) {
+                        throw new IllegalArgumentException("Fog types must be >= 2: " + fogTypes[i]);
+                    }
+                }
+                break;
+            }
+            case "--objectives": objectiveCount = Integer.parseInt(value); break;
+            case "--options": optionsPerObjective = Integer.parseInt(value); break;
+            case "--weights": weights = value.split(":"); break;
+            case "--decimals": decimals = Integer.parseInt(value); break;
+            case "--radius": radius = Integer.parseInt(value); break;
+            case "--diagonal": diagonal = true; break;
+            default: throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+    }
+
+    public void write(File nodes, File edges, File objectives) throws IOException {
+        Random rnd = new Random(seed);
+        byte[] types = new byte[width * height];            // Types fit a byte; ids are x * height + y
+
+        try (BufferedWriter w = new BufferedWriter(new FileWriter(nodes), 1 << 16)) {
+            w.write(width + " " + height + "\n");
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    double p = rnd.nextDouble();
+                    int t = p < obstacles ? 1 : p < obstacles + fog ? pickFogType(rnd) : 0;
+                    types[x * height + y] = (byte) t;
+                    w.write(x + " " + y + " " + t + "\n");
+                }
+            }
+        }
+
+        try (BufferedWriter w = new BufferedWriter(new FileWriter(edges), 1 << 16)) {
+            int[][] steps = diagonal ? new int[][]{{1, 0}, {0, 1}, {1, 1}, {1, -1}} : new int[][]{{1, 0}, {0, 1}};
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    for (int[] d : steps) {
+                        int nx = x + d[0], ny = y + d[1];
+                        if (nx < width && ny >= 0 && ny < height) {
+                            double time = travelTime(rnd) * (d[0] != 0 && d[1] != 0 ? Math.sqrt(2) : 1);
+                            w.write(x + "-" + y + "," + nx + "-" + ny + " "
+                                    + String.format(Locale.ROOT, "%." + decimals + "f", time) + "\n");
+                        }
+                    }
+                }
+            }
+        }
+
+        // Objectives and the start are placed on open ground
+        ArrayList<Integer> optionPool = new ArrayList<>();
+        optionPool.add(1);
+        for (int t : fogTypes) {
+            optionPool.add(t);
+        }
+        try (BufferedWriter w = new BufferedWriter(new FileWriter(objectives))) {
+            w.write(radius + "\n");
+            int start = openCell(rnd, types);
+            w.write((start / height) + " " + (start % height) + "\n");
+            for (int i = 0; i < objectiveCount; i++) {
+                int cell = openCell(rnd, types);
+                StringBuilder line = new StringBuilder();
+                line.append(cell / height).append(' ').append(cell % height);
+                ArrayList<Integer> pool = new ArrayList<>(optionPool);
+                for (int k = 0; k < optionsPerObjective && !pool.isEmpty(); k++) {
+                    line.append(' ').append(pool.remove(rnd.nextInt(pool.size())));
+                }
+                w.write(line + "\n");
+            }
+        }
+    }
+
+    private int pickFogType(Random rnd) {
+        double total = 0;
+        for (double wgt : fogWeights) {
+            total += wgt;
+        }
+        double r = rnd.nextDouble() * total;
+        for (int i = 0; i < fogTypes.length; i++) {
+            r -= fogWeights[i];
+            if (r < 0) {
+                return fogTypes[i];
+            }
+        }
+        return fogTypes[fogTypes.length - 1];
+    }
+
+    private double travelTime(Random rnd) {
+        switch (weights[0]) {
+            case "const":
+                return Double.parseDouble(weights[1]);
+            case "exp": {
+                double min = Double.parseDouble(weights[1]);
+                double mean = Double.parseDouble(weights[2]);
+                return min - (mean - min) * Math.log(1 - rnd.nextDouble());
+            }
+            case "uniform": {
+                double min = Double.parseDouble(weights[1]);
+                double max = Double.parseDouble(weights[2]);
+                return min + (max - min) * rnd.nextDouble();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown weight distribution: " + weights[0]);
+        }
+    }
+
+    private int openCell(Random rnd, byte[] types) {
+        for (int tries = 0; tries < 1000000; tries++) {
+            int cell = rnd.nextInt(types.length);
+            if (types[cell] == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException("No open cell found; lower --obstacles or --fog");
+    }
+}
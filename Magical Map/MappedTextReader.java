@@ -0,0 +1,274 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads a text file through memory-mapped windows and parses numbers straight from the bytes,
+// so loading a map does not create a String or an array per line.
+public class MappedTextReader implements Closeable {
+    private static final long WINDOW_SIZE = 1L << 28;          // Bytes mapped at a time (256 MB)
+    private static final int EOF = -1;
+    private static final double[] POW10 = {                     // Powers of ten that are exact doubles
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final String filename;
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;                            // Currently mapped part of the file
+    private long windowStart;                                   // File offset of the window
+    private int windowLimit;                                    // Number of bytes in the window
+    private int pos;                                            // Read position inside the window
+    private int line = 1;                                       // 1-based number of the line being read
+    private byte[] scratch = new byte[64];                      // Bytes of the current number, for the slow path
+
+    public MappedTextReader(String filename) throws IOException {
+        this.filename = filename;
+        this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowStart = 0;
+        map(0);
+    }
+
+    public int line() {
+        return line;
+    }
+
+    // Skip empty and whitespace-only lines; returns false once the end of the file is reached
+    public boolean nextNonBlankLine() throws IOException {
+        while (true) {
+            skipSpaces();
+            int c = peek();
+            if (c == EOF) {
+                return false;
+            }
+            if (c != '\n') {
+                return true;
+            }
+            pos++;
+            line++;
+        }
+    }
+
+    // True if only whitespace is left on the current line
+    public boolean atEndOfLine() throws IOException {
+        skipSpaces();
+        int c = peek();
+        return c == '\n' || c == EOF;
+    }
+
+    // Drop whatever is left on the current line, including the line break
+    public void skipLine() throws IOException {
+        int c;
+        while ((c = peek()) != EOF) {
+            pos++;
+            if (c == '\n') {
+                line++;
+                return;
+            }
+        }
+    }
+
+    public void expect(char expected) throws IOException {
+        if (peek() != expected) {
+            throw error("expected '" + expected + "'");
+        }
+        pos++;
+    }
+
+    // Next whitespace-separated field as an int, like Integer.parseInt
+    public int readInt() throws IOException {
+        int value = parseInt();
+        int c = peek();
+        if (c != EOF && c != '\n' && !isSpace(c)) {
+            throw error("malformed integer");
+        }
+        return value;
+    }
+
+    // An int directly followed by the given separator, e.g. the x of "x-y"
+    public int readInt(char separator) throws IOException {
+        int value = parseInt();
+        expect(separator);
+        return value;
+    }
+
+    // Parse the next whitespace-separated token exactly like Double.parseDouble
+    public double readDouble() throws IOException {
+        skipSpaces();
+        int length = 0;
+        long mantissa = 0;
+        int digits = 0;                                         // Significant digits folded into the mantissa
+        int exponent = 0;
+        boolean fast = true;                                    // Still on the exact fast path
+        boolean negative = false;
+        boolean seenDigit = false;
+
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            length = keep(c, length);
+            c = peek();
+        }
+        while (isDigit(c)) {
+            seenDigit = true;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                fast = false;
+            }
+            length = keep(c, length);
+            c = peek();
+        }
+        if (c == '.') {
+            length = keep(c, length);
+            c = peek();
+            while (isDigit(c)) {
+                seenDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    fast = false;
+                }
+                length = keep(c, length);
+                c = peek();
+            }
+        }
+        if (seenDigit && (c == 'e' || c == 'E')) {
+            length = keep(c, length);
+            c = peek();
+            boolean negativeExp = false;
+            if (c == '-' || c == '+') {
+                negativeExp = c == '-';
+                length = keep(c, length);
+                c = peek();
+            }
+            if (!isDigit(c)) {
+                fast = false;
+            }
+            int exp = 0;
+            while (isDigit(c)) {
+                if (exp < 100000) {
+                    exp = exp * 10 + (c - '0');
+                }
+                length = keep(c, length);
+                c = peek();
+            }
+            exponent += negativeExp ? -exp : exp;
+        }
+        // Anything else in the token (Infinity, NaN, hex, a d/f suffix) goes to the slow path
+        while (c != EOF && c != '\n' && !isSpace(c)) {
+            fast = false;
+            length = keep(c, length);
+            c = peek();
+        }
+        if (length == 0) {
+            throw error("expected a number");
+        }
+
+        if (fast && seenDigit && mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            // Both operands are exact, so one rounding gives the same result as Double.parseDouble
+            double value = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(scratch, 0, length, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw error("malformed number");
+        }
+    }
+
+    public IOException error(String message) {
+        return new IOException(filename + ":" + line + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Internal helper methods
+
+    private int parseInt() throws IOException {
+        skipSpaces();
+        boolean negative = false;
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            pos++;
+            c = peek();
+        }
+        if (!isDigit(c)) {
+            throw error("expected an integer");
+        }
+        long value = 0;
+        while (isDigit(c)) {
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw error("integer out of range");
+            }
+            pos++;
+            c = peek();
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw error("integer out of range");
+        }
+        return (int) value;
+    }
+
+    private int keep(int c, int length) {                       // Consume c and remember it for the slow path
+        if (length == scratch.length) {
+            scratch = Arrays.copyOf(scratch, length * 2);
+        }
+        scratch[length] = (byte) c;
+        pos++;
+        return length + 1;
+    }
+
+    private void skipSpaces() throws IOException {
+        while (isSpace(peek())) {
+            pos++;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (pos == windowLimit) {
+            long next = windowStart + windowLimit;
+            if (next >= fileSize) {
+                return EOF;
+            }
+            map(next);
+        }
+        return window.get(pos) & 0xff;
+    }
+
+    private void map(long offset) throws IOException {
+        windowStart = offset;
+        windowLimit = (int) Math.min(WINDOW_SIZE, fileSize - offset);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, windowLimit);
+        pos = 0;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSpace(int c) {                     // Whitespace other than the line break
+        return c == ' ' || c == '\t' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+}
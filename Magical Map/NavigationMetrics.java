@@ -0,0 +1,76 @@
+import java.io.*;
+import java.util.ArrayList;
+
+// Per-objective summary of a run, written as CSV or JSON next to the output file
+public class NavigationMetrics {
+    private static final String[] COLUMNS = {
+            "objective", "option", "optionTrials", "replans", "searches", "nodesSettled", "heapPushes",
+            "decreaseKeys", "edgesRelaxed", "cacheHits", "cacheMisses", "tileFaults", "revealNanos", "searchNanos",
+            "totalNanos", "costGap"
+    };
+
+    private final ArrayList<long[]> rows = new ArrayList<>(); // One row per objective, in COLUMNS order but the last
+    private final ArrayList<Double> costGaps = new ArrayList<>(); // The last column, the only fractional one
+
+    public void add(int objective, int option, int optionTrials, int replans, SearchStats work,
+                    long revealNanos, long searchNanos, long totalNanos) {
+        rows.add(new long[]{
+                objective, option, optionTrials, replans, work.searches, work.settled, work.pushes,
+                work.decreases, work.relaxed, work.cacheHits, work.cacheMisses, work.tileFaults,
+                revealNanos, searchNanos, totalNanos
+        });
+        costGaps.add(work.costGap);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    // JSON if the file name ends in .json, CSV otherwise
+    public void write(String filename) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(filename)))) {
+            if (filename.endsWith(".json")) {
+                writeJson(out);
+            } else {
+                writeCsv(out);
+            }
+            if (out.checkError()) {
+                throw new IOException("Error writing " + filename);
+            }
+        }
+    }
+
+    private void writeCsv(PrintWriter out) {
+        out.println(String.join(",", COLUMNS));
+        for (int r = 0; r < rows.size(); r++) {
+            long[] row = rows.get(r);
+            StringBuilder line = new StringBuilder();
+            for (int c = 0; c < row.length; c++) {
+                if (c > 0) {
+                    line.append(',');
+                }
+                line.append(row[c]);
+            }
+            line.append(',').append(costGaps.get(r));
+            out.println(line);
+        }
+    }
+
+    private void writeJson(PrintWriter out) {
+        out.println("[");
+        for (int r = 0; r < rows.size(); r++) {
+            long[] row = rows.get(r);
+            StringBuilder line = new StringBuilder("  {");
+            for (int c = 0; c < row.length; c++) {
+                if (c > 0) {
+                    line.append(", ");
+                }
+                line.append('"').append(COLUMNS[c]).append("\": ").append(row[c]);
+            }
+            line.append(", \"").append(COLUMNS[row.length]).append("\": ").append(costGaps.get(r));
+            line.append(r + 1 < rows.size() ? "}," : "}");
+            out.println(line);
+        }
+        out.println("]");
+    }
+}
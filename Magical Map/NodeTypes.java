@@ -0,0 +1,8 @@
+// Type of every node id of a loaded grid, CompiledMap.MISSING for cells without a node
+public interface NodeTypes {
+    int type(int id);
+
+    default boolean exists(int id) {
+        return type(id) != CompiledMap.MISSING;
+    }
+}
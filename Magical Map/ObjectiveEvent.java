@@ -0,0 +1,66 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR event covering one objective of OzNavigator.run(), from the first reveal to "Objective n reached!"
+@Name("magicalmap.Objective")
+@Label("Objective")
+@Category("Magical Map")
+@Description("Work done to reach one objective")
+public class ObjectiveEvent extends Event {
+    @Label("Objective")
+    int objective;
+
+    @Label("Chosen Option")
+    @Description("Type cleared for this objective, -1 if it had no options")
+    int option;
+
+    @Label("Option Trials")
+    int optionTrials;
+
+    @Label("Replans")
+    @Description("Times a revealed node was found on the current path")
+    int replans;
+
+    @Label("Searches")
+    long searches;
+
+    @Label("Nodes Settled")
+    long nodesSettled;
+
+    @Label("Heap Pushes")
+    long heapPushes;
+
+    @Label("Decrease Keys")
+    long decreaseKeys;
+
+    @Label("Edges Relaxed")
+    long edgesRelaxed;
+
+    @Label("Path Cache Hits")
+    long cacheHits;
+
+    @Label("Path Cache Misses")
+    @Description("Path cache lookups that had to search, 0 when the cache is off")
+    long cacheMisses;
+
+    @Label("Tile Faults")
+    @Description("Tiles read from a tiled map file, 0 unless one is loaded")
+    long tileFaults;
+
+    @Label("Cost Gap")
+    @Description("Extra cost of hierarchical paths over exact ones, 0 for the exact engines")
+    double costGap;
+
+    @Label("Reveal Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long revealTime;
+
+    @Label("Search Time")
+    @Description("Wall time of path searches, option trials and replans")
+    @Timespan(Timespan.NANOSECONDS)
+    long searchTime;
+}
@@ -0,0 +1,17 @@
+public class OctileHeuristic implements Heuristic {
+    private static final double DIAGONAL_EXTRA = Math.sqrt(2) - 1; // Extra length of a diagonal step
+
+    private final double scale;               // Minimum edge time per unit of octile length
+
+    public OctileHeuristic(double scale) {
+        this.scale = scale;
+    }
+
+    @Override
+    public double estimate(int x, int y, int tx, int ty) {
+        int dx = Math.abs(x - tx);
+        int dy = Math.abs(y - ty);
+        // Straight moves along the longer axis plus diagonal moves along the shorter one
+        return scale * (Math.max(dx, dy) + DIAGONAL_EXTRA * Math.min(dx, dy));
+    }
+}
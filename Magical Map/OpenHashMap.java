@@ -0,0 +1,204 @@
+import java.util.Arrays;
+
+// Hash map with open addressing: keys and values sit in two flat arrays, collisions probe linearly
+// through a power-of-two table, and remove() shifts the following entries back instead of leaving
+// tombstones. The null key is kept outside the table.
+//
+// Iteration is allocation-free through slots:
+//   for (int s = map.firstSlot(); s >= 0; s = map.nextSlot(s)) { map.keyAt(s); map.valueAt(s); }
+// The map must not be modified while iterating.
+public class OpenHashMap<K, V> {
+    private Object[] keys;                    // null marks a free slot
+    private Object[] values;
+    private int mask;                         // Table length - 1
+    private int size;                         // Entries in the table, not counting the null key
+    private int threshold;                    // Size at which the table doubles
+    private boolean hasNullKey;
+    private V nullValue;
+
+    public OpenHashMap() {
+        this(0);
+    }
+
+    // Presized so that expectedSize entries fit without a resize
+    public OpenHashMap(int expectedSize) {
+        allocate(Hashing.capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size + (hasNullKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        if (key == null) {
+            return hasNullKey ? nullValue : defaultValue;
+        }
+        int slot = find(key);
+        return slot >= 0 ? (V) values[slot] : defaultValue;
+    }
+
+    public boolean containsKey(Object key) {
+        return key == null ? hasNullKey : find(key) >= 0;
+    }
+
+    // Insert or replace; returns the previous value, or null if the key was absent
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (key == null) {
+            V old = nullValue;
+            hasNullKey = true;
+            nullValue = value;
+            return old;
+        }
+        int slot = Hashing.mix(key.hashCode()) & mask;
+        for (Object k; (k = keys[slot]) != null; slot = (slot + 1) & mask) {
+            if (k.equals(key)) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+        }
+        insertAt(slot, key, value);
+        return null;
+    }
+
+    // Insert only if the key is absent; returns the value now mapped to the key
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(K key, V value) {
+        if (key == null) {
+            if (!hasNullKey) {
+                hasNullKey = true;
+                nullValue = value;
+            }
+            return nullValue;
+        }
+        int slot = Hashing.mix(key.hashCode()) & mask;
+        for (Object k; (k = keys[slot]) != null; slot = (slot + 1) & mask) {
+            if (k.equals(key)) {
+                return (V) values[slot];
+            }
+        }
+        insertAt(slot, key, value);
+        return value;
+    }
+
+    // Remove the key; returns its value, or null if it was absent
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (key == null) {
+            V old = nullValue;
+            hasNullKey = false;
+            nullValue = null;
+            return old;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V old = (V) values[slot];
+        removeAt(slot);
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+        hasNullKey = false;
+        nullValue = null;
+    }
+
+    // Slot iteration; the null key, if present, uses the slot just past the table
+
+    public int firstSlot() {
+        return nextSlot(-1);
+    }
+
+    public int nextSlot(int slot) {
+        for (int s = slot + 1; s <= mask; s++) {
+            if (keys[s] != null) {
+                return s;
+            }
+        }
+        return hasNullKey && slot <= mask ? mask + 1 : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public K keyAt(int slot) {
+        return slot > mask ? null : (K) keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        return slot > mask ? nullValue : (V) values[slot];
+    }
+
+    // Internal helper methods
+
+    private int find(Object key) {
+        int slot = Hashing.mix(key.hashCode()) & mask;
+        for (Object k; (k = keys[slot]) != null; slot = (slot + 1) & mask) {
+            if (k.equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insertAt(int slot, Object key, Object value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(Hashing.grow(mask + 1));
+        }
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the hole if their home allows it
+    private void removeAt(int slot) {
+        int gap = slot;
+        for (int i = (slot + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            int home = Hashing.mix(keys[i].hashCode()) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = null;
+        values[gap] = null;
+        size--;
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = Hashing.resizeThreshold(capacity);
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object k = oldKeys[i];
+            if (k != null) {
+                int slot = Hashing.mix(k.hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = k;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -1,87 +1,327 @@
 import java.io.*;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.IntPredicate;
 
 public class OzNavigator {
 
-    private BufferedWriter writer;                              // Writer to output logs or information
+    private static final int HEAP_ARITY = 4;                    // Children per node of the search frontier heap
+    private static final double HEURISTIC_SLACK = 1 - 1e-9;     // Shrinks heuristics so rounding never overestimates
+
+    // Search algorithms that run() can use for its point-to-point queries
+    public enum SearchEngine { DIJKSTRA, ASTAR, BIDIRECTIONAL, HIERARCHICAL }
+
+    private TraceSink trace;                                    // Receives the navigation trace
     private int maxX, maxY;                                     // Dimensions of the grid
-    private Node[][] grid;                                      // 2D array of Node objects representing the map
-    private HashMap<String, ArrayList<Edge>> adj = new HashMap<>(); // Adjacency list mapping "x-y" to a list of Edges
+    private NodeTypes types;                                    // Type of every node id as loaded, shared by scenarios and never written
+    private TiledMap tiles;                                     // Source of types and graph when a tiled map is loaded
+    private int tileCacheSize = TiledMap.DEFAULT_CACHE_TILES;   // Tiles kept in memory when a tiled map is read
+    private boolean verifyMap;                                  // Check a compiled map's payload checksum on open
+    private GridOverlay overlay;                                // Type changes and reveals of this run on top of types
+    private CsrGraph graph;                                     // Compressed adjacency of the map, keyed by node id x * maxY + y
+    private SearchWorkspace workspace;                          // Search arrays shared by every dijkstra call of a run
+    private final ConcurrentLinkedQueue<SearchWorkspace> spareWorkspaces = new ConcurrentLinkedQueue<>(); // Workspaces for option trials
+    private final IntPredicate currentPassability = this::isPassable; // Passability with this run's changes
+    private PathIndex pathSteps;                                // Node ids of the path being followed, made by the first route
+    private SearchEngine engine = SearchEngine.DIJKSTRA;        // Algorithm used by findPath
+    private int clusterSize = HierarchicalPlanner.DEFAULT_CLUSTER_SIZE; // Cluster side for the hierarchical engine
+    private HierarchicalPlanner hierarchy;                      // Created on the first hierarchical search of a map
+    private SearchWorkspace exactWorkspace;                     // Exact searches that measure the hierarchical cost gap
+    private int pathCacheCapacity;                              // Paths kept by the path cache, 0 to search every time
+    private PathCache pathCache;                                // Created on the first search of a run when enabled
+    private String heuristicName = "octile";                    // Heuristic used when the engine is A*
+    private Heuristic heuristic;                                // Created once the edges (and their scales) are loaded
+    private int landmarkCount = LandmarkTable.DEFAULT_LANDMARKS; // Landmarks of the ALT heuristic
+    private LandmarkTable landmarks;                            // Loaded or built with the graph when ALT is selected
+    private String mapFile;                                     // Node file or compiled map, the landmark table goes next to it
+    private Long mapFingerprint;                                // Identifies the map to its landmark table, null until known
+    private NavigationMetrics metrics;                          // Per-objective summary, null unless requested
+    private boolean timing;                                     // Time reveals and searches for the current objective
+    private long revealNanos, searchNanos;                      // Time spent in them so far for the current objective
+    private long objectiveFaults;                               // Tile faults before the current objective
     private Integer lineOfSightRadius;                          // Radius around the current position to reveal impassable nodes
+    private SightStencil stencil;                               // Disc offsets for lineOfSightRadius
+    private BitSet sighted;                                     // Node ids already inside some line-of-sight disc
+    private int lastSightX, lastSightY;                         // Center of the previous reveal
+    private boolean hasLastSight;                               // False until the first reveal on the current grid
     private int startX, startY;                                 // Starting coordinates
     private ArrayList<Objective> objectives = new ArrayList<>();// List of objectives (goals) to reach
 
-    private ArrayList<Node> allRevealedNodes = new ArrayList<>();// Keeps track of all nodes revealed (turned impassable)
-
     // Current position of the navigator
     private int currentX, currentY;
 
-    public OzNavigator(BufferedWriter writer) {
-        this.writer = writer;                                   // Store the provided BufferedWriter for later output
+    public OzNavigator(TraceSink trace) {
+        this.trace = trace;                                     // Store the provided trace sink for later output
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+
+    public NavigationMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(NavigationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setSearchEngine(SearchEngine engine) {
+        this.engine = engine;
+    }
+
+    public void setClusterSize(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + size);
+        }
+        this.clusterSize = size;
+        this.hierarchy = null;
+    }
+
+    public void setPathCacheCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Path cache capacity must not be negative: " + capacity);
+        }
+        this.pathCacheCapacity = capacity;
+        this.pathCache = null;
+    }
+
+    public void setLandmarkCount(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Landmark count must be positive: " + count);
+        }
+        if (count == landmarkCount) {
+            return;                                             // Keep a table loaded or shared for this count
+        }
+        this.landmarkCount = count;
+        this.landmarks = null;
+        this.heuristic = null;
+    }
+
+    public void setHeuristic(String name) {
+        if (!name.equals("euclidean") && !name.equals("octile") && !name.equals("alt")) {
+            throw new IllegalArgumentException("Unknown heuristic: " + name);
+        }
+        this.heuristicName = name;
+        this.heuristic = null;                                  // Rebuilt lazily with the loaded edge scales
+    }
+
+    // Build the selected heuristic, scaled by the cheapest time per unit length in the edges file
+    private Heuristic heuristic() {
+        if (heuristic == null) {
+            if (heuristicName.equals("alt")) {
+                if (landmarks == null) {
+                    try {
+                        loadLandmarks();                        // Selected after the map was read
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                heuristic = new AltHeuristic(landmarks, maxY);
+            } else if (heuristicName.equals("euclidean")) {
+                heuristic = new EuclideanHeuristic(graph.minTimePerEuclidean() * HEURISTIC_SLACK);
+            } else {
+                heuristic = new OctileHeuristic(graph.minTimePerOctile() * HEURISTIC_SLACK);
+            }
+        }
+        return heuristic;
     }
 
     public void readNodeFile(String filename) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+        mapFile = filename;
+        try (MappedTextReader in = new MappedTextReader(filename)) {
             // Read dimensions (maxX, maxY)
-            String[] dim = br.readLine().trim().split("\\s+");
-            maxX = Integer.parseInt(dim[0]);
-            maxY = Integer.parseInt(dim[1]);
-
-            // Initialize the grid of nodes
-            grid = new Node[maxX][maxY];
-
-            String line;
-            // For each line, create a Node object and store it in the grid
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.trim().split("\\s+");
-                int x = Integer.parseInt(parts[0]);
-                int y = Integer.parseInt(parts[1]);
-                int t = Integer.parseInt(parts[2]);
-                grid[x][y] = new Node(x, y, t, true);           // Initially 'true' for passable if type allows
+            if (!in.nextNonBlankLine()) {
+                throw in.error("missing grid dimensions");
+            }
+            maxX = in.readInt();
+            maxY = in.readInt();
+            in.skipLine();
+
+            // Initialize the grid with no nodes
+            PackedGrid grid = new PackedGrid(maxX * maxY);
+            types = grid;
+            tiles = null;
+            gridLoaded();
+
+            // For each line, store the node's type in the grid
+            while (in.nextNonBlankLine()) {
+                int x = in.readInt();
+                int y = in.readInt();
+                int t = in.readInt();
+                checkBounds(in, x, y);
+                grid.set(x * maxY + y, t);                      // A repeated line replaces the earlier node
+                in.skipLine();
             }
         }
     }
 
     public void readEdgesFile(String filename) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
-            // Each line describes an edge between two nodes and the travel time between them
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("\\s+");
-                String[] nodeCoords = parts[0].split(",");
-                double time = Double.parseDouble(parts[1]);
-
-                // Parse the coordinates of the two connected nodes
-                int[] coord1 = parseCoordinate(nodeCoords[0]);
-                int[] coord2 = parseCoordinate(nodeCoords[1]);
+        CsrGraph.Builder builder = new CsrGraph.Builder(maxX, maxY);
+        try (MappedTextReader in = new MappedTextReader(filename)) {
+            // Each line describes an edge "x1-y1,x2-y2 time" between two nodes and the travel time between them
+            while (in.nextNonBlankLine()) {
+                int x1 = in.readInt('-');
+                int y1 = in.readInt(',');
+                int x2 = in.readInt('-');
+                int y2 = in.readInt();
+                double time = in.readDouble();
+                checkBounds(in, x1, y1);
+                checkBounds(in, x2, y2);
 
                 // Add edges in both directions (undirected graph)
-                addEdge(coord1[0], coord1[1], coord2[0], coord2[1], time);
-                addEdge(coord2[0], coord2[1], coord1[0], coord1[1], time);
+                builder.addEdge(x1, y1, x2, y2, time);
+                builder.addEdge(x2, y2, x1, y1, time);
+                in.skipLine();
             }
         }
+        graph = builder.build();                                // Sort, deduplicate and freeze the adjacency
+        graphLoaded();
+        if (heuristicName.equals("alt")) {
+            loadLandmarks();
+        }
+    }
+
+    // Load the grid and adjacency from a file written by compileMap, instead of the node and edge files
+    public void readCompiledMap(String filename) throws IOException {
+        CompiledMap map = CompiledMap.open(filename, verifyMap);
+        mapFile = filename;
+        maxX = map.maxX();
+        maxY = map.maxY();
+        types = map;                                            // Read in place from the mapped types section
+        tiles = null;
+        gridLoaded();
+        graph = map.graph();                                    // Used in place, straight from the mapped file
+        graphLoaded();
+        mapFingerprint = map.fingerprint();
+        if (heuristicName.equals("alt")) {
+            loadLandmarks();
+        }
+    }
+
+    // Open a map written by tileMap. Tiles are read as searches and reveals reach them, and at most
+    // setTileCache tiles are held in memory.
+    public void readTiledMap(String filename) throws IOException {
+        TiledMap map = TiledMap.open(filename, tileCacheSize);
+        mapFile = filename;
+        maxX = map.maxX();
+        maxY = map.maxY();
+        types = map;
+        tiles = map;
+        gridLoaded();
+        graph = map.graph();
+        graphLoaded();
+        mapFingerprint = map.fingerprint();
+        if (heuristicName.equals("alt")) {
+            loadLandmarks();                                    // Reads every tile once if the table must be built
+        }
+    }
+
+    public void setTileCache(int tileCount) {
+        if (tileCount < 1) {
+            throw new IllegalArgumentException("Tile cache must hold at least one tile: " + tileCount);
+        }
+        this.tileCacheSize = tileCount;
+    }
+
+    // Check the whole payload of a compiled map against its checksum when it is read. Off by default,
+    // as it reads every page of the file.
+    public void setVerifyMap(boolean verify) {
+        this.verifyMap = verify;
+    }
+
+    public TiledMap getTiledMap() {
+        return tiles;
+    }
+
+    // Map the landmark table kept next to the map file, building it first if it is missing or stale
+    private void loadLandmarks() throws IOException {
+        if (mapFingerprint == null) {
+            mapFingerprint = LandmarkTable.fingerprint(graph);  // A graph read from text, hashed once
+        }
+        landmarks = LandmarkTable.load(mapFile == null ? null : mapFile + ".landmarks", graph, landmarkCount,
+                mapFingerprint, verifyMap);
+    }
+
+    // Write the loaded grid and adjacency as a compiled map for later runs
+    public void compileMap(String filename) throws IOException {
+        CompiledMap.write(filename, maxX, maxY, types, graph);
+    }
+
+    // Write the loaded grid and adjacency as a tiled map of tileSize x tileSize cells
+    public void tileMap(String filename, int tileSize) throws IOException {
+        TiledMap.write(filename, maxX, maxY, types, graph, tileSize);
+    }
+
+    // A navigator for another objectives file on the map loaded here. It shares the node types and
+    // the adjacency, which are never written, and gets its own overlay plus fresh search and sight
+    // state, so scenarios can run side by side.
+    public OzNavigator scenario(TraceSink trace) {
+        OzNavigator nav = new OzNavigator(trace);
+        nav.maxX = maxX;
+        nav.maxY = maxY;
+        nav.types = types;
+        nav.tiles = tiles;                                      // The tile cache is thread-safe and shared too
+        nav.gridLoaded();
+        nav.graph = graph;
+        nav.graphLoaded();
+        nav.mapFile = mapFile;
+        nav.mapFingerprint = mapFingerprint;
+        nav.landmarkCount = landmarkCount;
+        nav.landmarks = landmarks;                              // Read-only, so scenarios share it
+        return nav;
+    }
+
+    // Set up everything that depends on the adjacency once it is available
+    private void graphLoaded() {
+        heuristic = null;
+        landmarks = null;
+        mapFingerprint = null;
+        hierarchy = null;
+        exactWorkspace = null;
+        pathCache = null;
+        workspace = new SearchWorkspace(graph.nodeCount(), HEAP_ARITY);
+        spareWorkspaces.clear();
+        pathSteps = null;
     }
 
-    // Parse a coordinate string in the form "x-y" into integer x and y
-    private int[] parseCoordinate(String coord) {
-        String[] xy = coord.split("-");
-        int x = Integer.parseInt(xy[0]);
-        int y = Integer.parseInt(xy[1]);
-        return new int[]{x, y};
+    // A new grid has no changes and has not been seen by any reveal yet
+    private void gridLoaded() {
+        overlay = new GridOverlay(types);
+        pathCache = null;                                       // Its entries describe the old overlay
+        sighted = new BitSet(maxX * maxY);
+        hasLastSight = false;
     }
 
-    // Add an edge from (x1,y1) to (x2,y2) with the given travel time
-    private void addEdge(int x1, int y1, int x2, int y2, double time) {
-        String key = x1 + "-" + y1;                             // Convert coordinates to a string key
-        adj.putIfAbsent(key, new ArrayList<>());                // Ensure list exists
-        adj.get(key).add(new Edge(x2, y2, time));               // Add the edge
+    // Reject coordinates outside the grid, reporting the offending line
+    private void checkBounds(MappedTextReader in, int x, int y) throws IOException {
+        if (x < 0 || x >= maxX || y < 0 || y >= maxY) {
+            throw in.error("coordinate " + x + "-" + y + " is outside the " + maxX + "x" + maxY + " grid");
+        }
     }
 
     public void readObjFile(String filename) throws IOException {
         // This reads the objectives file, including line-of-sight radius, start position, and objectives
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            lineOfSightRadius = (int) Double.parseDouble(br.readLine().trim()); // First line: line of sight radius
+        try (MappedTextReader in = new MappedTextReader(filename)) {
+            if (!in.nextNonBlankLine()) {
+                throw in.error("missing line of sight radius");
+            }
+            lineOfSightRadius = (int) in.readDouble();          // First line: line of sight radius
+            in.skipLine();
 
             // Data structures to hold parsed objective information before creating Objective objects
             ArrayList<Integer> xList = new ArrayList<>();
@@ -91,31 +331,26 @@ public class OzNavigator {
             optsList.add(0, new ArrayList<>());                 // Initialize optsList with an empty list at index 0
 
             // Read starting coordinates
-            String[] startCoords = br.readLine().trim().split("\\s+");
-            startX = Integer.parseInt(startCoords[0]);
-            startY = Integer.parseInt(startCoords[1]);
+            if (!in.nextNonBlankLine()) {
+                throw in.error("missing start coordinates");
+            }
+            startX = in.readInt();
+            startY = in.readInt();
+            in.skipLine();
 
-            String line;
             // Read each objective line, parse coordinates and options
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.trim().split("\\s+");
-                int ox = Integer.parseInt(parts[0]);
-                xList.add(ox);
-                int oy = Integer.parseInt(parts[1]);
-                yList.add(oy);
-                ArrayList<Integer> opts = new ArrayList<>();
+            while (in.nextNonBlankLine()) {
+                xList.add(in.readInt());
+                yList.add(in.readInt());
 
                 // If there are additional integers, they are options
-                if (parts.length > 2) {
-                    for (int i = 2; i < parts.length; i++) {
-                        opts.add(Integer.parseInt(parts[i]));
-                    }
-                } else {
-                    opts = new ArrayList<>();
+                ArrayList<Integer> opts = new ArrayList<>();
+                while (!in.atEndOfLine()) {
+                    opts.add(in.readInt());
                 }
 
                 optsList.add(opts);
-                opts = new ArrayList<>();
+                in.skipLine();
             }
 
             // Create Objective objects from parsed data
@@ -128,7 +363,7 @@ public class OzNavigator {
 
     public void writeOutput() {
         try {
-            writer.flush();                                      // Flush the writer to ensure data is written out
+            trace.flush();                                       // Flush the trace to ensure data is written out
         } catch (IOException e) {
             System.err.println("Error writing to file.");
             e.printStackTrace();
@@ -141,7 +376,6 @@ public class OzNavigator {
         currentY = startY;
 
         ArrayList<Node> revealedNodes;                          // Temporarily holds nodes revealed each step
-        ArrayList<Node> changedNodes;                           // Temporarily holds nodes whose type changes
         ArrayList<Integer> bestOptions = new ArrayList<>();     // Track best options chosen so far
         ArrayList<int[]> path;                                  // Stores a path of coordinates from current to objective
 
@@ -152,80 +386,75 @@ public class OzNavigator {
             int targetX = obj.x;
             int targetY = obj.y;
 
-            changedNodes = new ArrayList<>();
+            // Instrumentation; the clock is only read when metrics or the JFR event are enabled
+            ObjectiveEvent event = new ObjectiveEvent();
+            event.begin();
+            timing = metrics != null || event.isEnabled();
+            long objectiveStart = clock();
+            objectiveFaults = tiles != null ? tiles.faults() : 0;
+            revealNanos = 0;
+            searchNanos = 0;
+            int replans = 0;
+            clearSearchStats();
 
             int bestOption = -1;
             double bestDist = Double.POSITIVE_INFINITY;
 
             // Reveal around the current position to mark any newly discovered impassable nodes
-            revealedNodes = revealAround(currentX,currentY);
+            revealedNodes = reveal();
 
             // If the objective has options, try them to find the best one
             if (!obj.options.isEmpty()) {
 
-                // For each option, temporarily alter nodes of that type to 0 (passable),
-                // find a path, measure distance, and revert changes
-                for (int opt : obj.options) {
-
-                    for (Node[] temp : grid) {
-                        for (Node node : temp) {
-                            if (node.getType() == opt) {
-                                node.setTypeToZero();
-                                changedNodes.add(node);
-                            }
-                        }
-                    }
-
-                    revealedNodes = revealAround(currentX, currentY);
-                    path = dijkstra(currentX, currentY, targetX, targetY);
-
-                    double totalDistance = calculateTotalPathDistance(path, adj);
-
+                // Measure the path length with each option applied; the trials run in parallel
+                long t0 = clock();
+                List<ArrayList<int[]>> optionPaths = evaluateOptions(obj.options, targetX, targetY);
+                searchNanos += clock() - t0;
+                int best = -1;
+                for (int k = 0; k < optionPaths.size(); k++) {
                     // Update bestOption if this option yields a shorter path
-                    if (totalDistance < bestDist) {
-                        bestDist = totalDistance;
-                        bestOption = opt;
-                    }
-
-                    // Revert nodes to original type after testing this option
-                    for (Node node : changedNodes) {
-                        node.setType(opt);
-                    }
-
-                    // If any revealed nodes were previously made passable, make sure they remain impassable
-                    for (Node node : changedNodes){
-                        if (allRevealedNodes.contains(node)){
-                            node.passable = false;
-                        }
+                    double dist = calculateTotalPathDistance(optionPaths.get(k), graph);
+                    if (dist < bestDist) {
+                        bestDist = dist;
+                        bestOption = obj.options.get(k);
+                        best = k;
                     }
+                }
 
-                    changedNodes.clear();
+                // Trying option 0 reverts every type 0 node to passable and then re-blocks the revealed ones,
+                // including revealed nodes an earlier option had cleared
+                if (obj.options.contains(0)) {
+                    overlay.reblockRevealedZeros();
                 }
 
                 // Finally, set all nodes of the bestOption type to 0 (passable) permanently
-                for (Node[] temp : grid) {
-                    for (Node node : temp) {
-                        if (node.getType() == bestOption) {
-                            node.setTypeToZero();
-                            changedNodes.add(node);
-                        }
-                    }
+                overlay.zeroType(bestOption);
+
+                // The best trial's view matches the grid as committed unless an option 0 trial came
+                // after it, since the commit re-blocks for any option 0. The hierarchical engine would
+                // not search the committed grid the way the exact trial did.
+                int zeroAt = obj.options.indexOf(0);
+                if (pathCacheCapacity > 0 && engine != SearchEngine.HIERARCHICAL
+                        && (bestOption == 0 || zeroAt < 0 || zeroAt < best)) {
+                    pathCache().put(graph.id(currentX, currentY), graph.id(targetX, targetY),
+                            optionPaths.get(best), bestDist);
                 }
 
-                writer.write("Number " + bestOption + " is chosen!"+ "\n");
+                trace.optionChosen(bestOption);
                 // Note: bestOptions is not updated here (commented out in the code)
             }
 
             // Reveal nodes around current position again
-            revealedNodes = revealAround(currentX, currentY);
+            revealedNodes = reveal();
 
-            // Compute the path to the objective using Dijkstra
-            path = dijkstra(currentX, currentY, targetX, targetY);
+            // Compute the path to the objective with the selected search engine
+            path = route(targetX, targetY);
 
             // If any revealed (impassable) node lies in the path, recalculate
-            if (isAnyNodeInPath(revealedNodes, path)) {
-                writer.write("Path is impassable!"+ "\n");
-                path = dijkstra(currentX, currentY, targetX, targetY);
+            if (firstBlockedStep(revealedNodes) >= 0) {
+                trace.pathImpassable();
+                replans++;
+                path = route(targetX, targetY);
             }
 
             // Begin traversing the computed path
@@ -237,26 +466,28 @@ public class OzNavigator {
                     idx = 1;
                 }
 
-                revealedNodes = revealAround(currentX, currentY);
+                revealedNodes = reveal();
 
                 // Check path impassability again after revealing more nodes
-                if (isAnyNodeInPath(revealedNodes, path)) {
-                    writer.write("Path is impassable!"+ "\n");
+                if (firstBlockedStep(revealedNodes) >= 0) {
+                    trace.pathImpassable();
+                    replans++;
                     idx = 1;
-                    path = dijkstra(currentX, currentY, targetX, targetY);
+                    path = route(targetX, targetY);
                 }
             }
 
             // Move along the path step by step
             while (idx < path.size()) {
 
-                revealedNodes = revealAround(currentX, currentY);
+                revealedNodes = reveal();
 
                 // If any revealed node blocks the path, recalculate path
-                if (isAnyNodeInPath(revealedNodes, path)) {
-                    writer.write("Path is impassable!"+ "\n");
+                if (firstBlockedStep(revealedNodes) >= 0) {
+                    trace.pathImpassable();
+                    replans++;
                     idx = 1;
-                    path = dijkstra(currentX, currentY, targetX, targetY);
+                    path = route(targetX, targetY);
                 }
 
                 int[] step = path.get(idx);
@@ -266,18 +497,141 @@ public class OzNavigator {
                 // Move to the next node in the path
                 currentX = nx;
                 currentY = ny;
-                writer.write("Moving to " + nx + "-" + ny+ "\n");
+                trace.movedTo(nx, ny);
                 idx++;
             }
 
             // Once we've followed the path, we consider the objective reached
-            writer.write("Objective " + (i + 1) + " reached!"+ "\n");
+            trace.objectiveReached(i + 1);
+            recordObjective(event, i + 1, bestOption, obj.options.size(), replans, objectiveStart);
+        }
+
+    }
+
+    // revealAround at the current position, timed when instrumentation is on
+    private ArrayList<Node> reveal() {
+        long t0 = clock();
+        ArrayList<Node> nodes = revealAround(currentX, currentY);
+        revealNanos += clock() - t0;
+        return nodes;
+    }
+
+    // findPath from the current position and make the result the path being followed;
+    // timed when instrumentation is on
+    private ArrayList<int[]> route(int tx, int ty) {
+        long t0 = clock();
+        ArrayList<int[]> path = findPath(currentX, currentY, tx, ty);
+        if (pathSteps == null) {
+            pathSteps = new PathIndex(graph.nodeCount());
+        }
+        pathSteps.set(path, graph);
+        searchNanos += clock() - t0;
+        return path;
+    }
+
+    private long clock() {
+        return timing ? System.nanoTime() : 0L;
+    }
+
+    private void clearSearchStats() {
+        workspace.stats().clear();
+        for (SearchWorkspace ws : spareWorkspaces) {
+            ws.stats().clear();
+        }
+    }
+
+    // Commit the JFR event and the metrics row of a finished objective
+    private void recordObjective(ObjectiveEvent event, int number, int option, int optionTrials, int replans,
+                                 long objectiveStart) {
+        if (!timing) {
+            return;
+        }
+        SearchStats work = new SearchStats();                   // Search work of the main and the option trial workspaces
+        work.add(workspace.stats());
+        if (tiles != null) {
+            work.tileFaults = tiles.faults() - objectiveFaults; // Includes faults of scenarios sharing the map
+        }
+        for (SearchWorkspace ws : spareWorkspaces) {
+            work.add(ws.stats());
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.objective = number;
+            event.option = option;
+            event.optionTrials = optionTrials;
+            event.replans = replans;
+            event.searches = work.searches;
+            event.nodesSettled = work.settled;
+            event.heapPushes = work.pushes;
+            event.decreaseKeys = work.decreases;
+            event.edgesRelaxed = work.relaxed;
+            event.cacheHits = work.cacheHits;
+            event.cacheMisses = work.cacheMisses;
+            event.tileFaults = work.tileFaults;
+            event.costGap = work.costGap;
+            event.revealTime = revealNanos;
+            event.searchTime = searchNanos;
+            event.commit();
+        }
+        if (metrics != null) {
+            metrics.add(number, option, optionTrials, replans, work, revealNanos, searchNanos,
+                    clock() - objectiveStart);
+        }
+    }
+
+    // Path to (tx,ty) for every option, each searched on its own passability view of the grid.
+    // A view treats every node of the option's type as cleared; the overlay itself is never modified,
+    // so the trials are independent and run on the fork-join pool.
+    private List<ArrayList<int[]>> evaluateOptions(ArrayList<Integer> options, int tx, int ty) throws IOException {
+        int sx = currentX, sy = currentY;
+        heuristic();                                            // Build the shared heuristic before the workers need it
+
+        ArrayList<Callable<ArrayList<int[]>>> trials = new ArrayList<>();
+        boolean zeroTried = false;
+        for (int opt : options) {
+            // After an option 0 trial the revealed type 0 nodes are blocked again for later trials
+            IntPredicate view = overlay.withCleared(opt, zeroTried);
+            trials.add(() -> optionTrial(view, sx, sy, tx, ty));
+            zeroTried |= opt == 0;
+        }
+
+        ArrayList<ArrayList<int[]>> result = new ArrayList<>(trials.size());
+        try {
+            if (trials.size() == 1) {
+                result.add(trials.get(0).call());              // Not worth a hand-off to the pool
+                return result;
+            }
+            List<Future<ArrayList<int[]>>> futures = ForkJoinPool.commonPool().invokeAll(trials);
+            for (Future<ArrayList<int[]>> future : futures) {
+                result.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while trying options");
+        } catch (ExecutionException e) {
+            throw new IOException("Option trial failed", e.getCause());
+        } catch (Exception e) {
+            throw new IOException("Option trial failed", e);
         }
+        return result;
+    }
 
+    // Best path on an option's passability view
+    private ArrayList<int[]> optionTrial(IntPredicate view, int sx, int sy, int tx, int ty) {
+        SearchWorkspace ws = spareWorkspaces.poll();
+        if (ws == null) {
+            ws = new SearchWorkspace(graph.nodeCount(), HEAP_ARITY);
+        }
+        try {
+            return findPath(ws, view, sx, sy, tx, ty);
+        } finally {
+            spareWorkspaces.add(ws);                            // Hand the workspace to the next trial
+        }
     }
 
     // Calculate the total distance of a given path using the adjacency information
-    public double calculateTotalPathDistance(ArrayList<int[]> path, HashMap<String, ArrayList<Edge>> adj) {
+    public double calculateTotalPathDistance(ArrayList<int[]> path, CsrGraph graph) {
         if (path == null || path.size() < 2) {
             return 0.0; // No path or a single-node path means zero distance
         }
@@ -292,20 +646,11 @@ public class OzNavigator {
             int x1 = current[0], y1 = current[1];
             int x2 = next[0], y2 = next[1];
 
-            String key = x1 + "-" + y1;
-            ArrayList<Edge> edges = adj.getOrDefault(key);
-
-            boolean edgeFound = false;
             // Find the edge leading from (x1,y1) to (x2,y2)
-            for (Edge edge : edges) {
-                if (edge.nx == x2 && edge.ny == y2) {
-                    totalDistance += edge.time;
-                    edgeFound = true;
-                    break;
-                }
-            }
-
-            if (!edgeFound) {
+            double time = graph.edgeWeight(graph.id(x1, y1), graph.id(x2, y2));
+            if (!Double.isNaN(time)) {
+                totalDistance += time;
+            } else {
                 System.out.println("No edge found between (" + x1 + ", " + y1 + ") and (" + x2 + ", " + y2 + ")");
             }
         }
@@ -313,132 +658,356 @@ public class OzNavigator {
         return totalDistance;
     }
 
-    // Reveal nodes around (cx,cy) within lineOfSightRadius that are type >= 2, marking them impassable
+    // Reveal nodes around (cx,cy) within lineOfSightRadius that are type >= 2, marking them impassable.
+    // A cell only has to be looked at the first time it enters the disc: its type can only change to 0
+    // afterwards, and a revealed node stays impassable. So after a one-cell move only the disc's
+    // leading edge is scanned, and cells already sighted are skipped.
     public ArrayList<Node> revealAround(int cx, int cy) {
 
         if (cx < 0 || cx >= maxX || cy < 0 || cy >= maxY) return new ArrayList<>();
 
+        if (stencil == null || stencil.radius() != lineOfSightRadius) {
+            stencil = new SightStencil(lineOfSightRadius);
+            hasLastSight = false;                               // The previous disc had another radius
+        }
+        int mx = cx - lastSightX, my = cy - lastSightY;
+        boolean step = hasLastSight && SightStencil.isStep(mx, my);
+        int[] xs = step ? stencil.enterX(mx, my) : stencil.fullX();
+        int[] ys = step ? stencil.enterY(mx, my) : stencil.fullY();
+        lastSightX = cx;
+        lastSightY = cy;
+        hasLastSight = true;
+
         ArrayList<Node> myRevealedNodes = new ArrayList<>();     // Nodes whose passability changes now
 
-        for (int x = Math.max(cx - (int)Math.ceil(lineOfSightRadius), 0);
-             x < Math.min(cx + (int)Math.ceil(lineOfSightRadius) + 1, maxX);
-             x++) {
-            for (int y = Math.max(cy - (int)Math.ceil(lineOfSightRadius), 0);
-                 y < Math.min(cy + (int)Math.ceil(lineOfSightRadius) + 1, maxY);
-                 y++) {
-
-                double dx = x - cx;
-                double dy = y - cy;
-                double distSquared = dx * dx + dy * dy;
-
-                // If within lineOfSightRadius and type >= 2, make node impassable
-                if (grid[x][y] != null && distSquared <= lineOfSightRadius * lineOfSightRadius && grid[x][y].type >= 2) {
-                    if (grid[x][y].passable) {
-                        grid[x][y].passable = false;
-                        myRevealedNodes.add(grid[x][y]);
-                    }
-                }
+        // Offsets come in row-by-row order, so the nodes are revealed in the order of a full scan
+        for (int k = 0; k < xs.length; k++) {
+            int x = cx + xs[k];
+            int y = cy + ys[k];
+            if (x < 0 || x >= maxX || y < 0 || y >= maxY) {
+                continue;
             }
-        }
+            int id = x * maxY + y;
+            if (sighted.get(id)) {
+                continue;
+            }
+            sighted.set(id);
 
-        // Add these newly revealed nodes to the global list
-        if (!myRevealedNodes.isEmpty()) {
-            for (Node node : myRevealedNodes){
-                allRevealedNodes.add(node);
+            // If type >= 2, make node impassable
+            if (overlay.exists(id) && overlay.type(id) >= 2 && overlay.isPassable(id)) {
+                overlay.reveal(id);
+                myRevealedNodes.add(new Node(x, y, overlay.type(id)));
             }
         }
 
         return myRevealedNodes;
     }
 
-    // Check if any of the revealed impassable nodes are part of the given path
-    public boolean isAnyNodeInPath(ArrayList<Node> revealedNodes, ArrayList<int[]> path) {
-        ArrayList<String> pathSet = new ArrayList<>();
-        // Convert path coordinates to strings for easier searching
-        for (int[] p : path) {
-            pathSet.add(p[0] + "-" + p[1]);
-        }
+    private boolean isPassable(int id) {
+        return overlay.isPassable(id);
+    }
 
-        // If any revealed node matches a coordinate in the path, return true
+    // First step of the path being followed that one of the revealed nodes blocks, or -1 if none does.
+    // The whole path counts, including steps already walked, as the move loop has always checked it.
+    public int firstBlockedStep(ArrayList<Node> revealedNodes) {
+        int first = -1;
+        if (pathSteps == null) {
+            return first;                                       // No path routed yet
+        }
         for (Node node : revealedNodes) {
-            String key = node.x + "-" + node.y;
-            if (pathSet.contains(key)) {
-                return true;
+            int step = pathSteps.indexOf(graph.id(node.x, node.y));
+            if (step >= 0 && (first < 0 || step < first)) {
+                first = step;
             }
         }
+        return first;
+    }
 
-        return false;
+    // Shortest path from (sx,sy) to (tx,ty) using the selected search engine, from the path cache
+    // when it is enabled and still holds a valid result. The returned list must not be modified.
+    public ArrayList<int[]> findPath(int sx, int sy, int tx, int ty) {
+        if (pathCacheCapacity == 0) {
+            return findPath(workspace, currentPassability, sx, sy, tx, ty);
+        }
+        int source = graph.id(sx, sy);
+        int target = graph.id(tx, ty);
+        SearchStats stats = workspace.stats();
+        ArrayList<int[]> path = pathCache().get(source, target);
+        if (path != null) {
+            stats.cacheHits++;
+            return path;
+        }
+        stats.cacheMisses++;
+        path = findPath(workspace, currentPassability, sx, sy, tx, ty);
+        pathCache.put(source, target, path, calculateTotalPathDistance(path, graph));
+        return path;
     }
 
-    // Dijkstra's algorithm to find the shortest path from (sx,sy) to (tx,ty)
-    public ArrayList<int[]> dijkstra(int sx, int sy, int tx, int ty) {
-        double[][] dist = new double[maxX][maxY];
-        // Initialize distances to infinity except the start node
-        for (int i = 0; i < maxX; i++) {
-            for (int j = 0; j < maxY; j++) {
-                dist[i][j] = Double.POSITIVE_INFINITY;
-            }
+    // The path cache of this run, listening to the overlay from its creation on
+    private PathCache pathCache() {
+        if (pathCache == null) {
+            pathCache = new PathCache(graph, currentPassability, heuristic(), pathCacheCapacity);
+            overlay.addListener(pathCache);
         }
-        dist[sx][sy] = 0.0;
+        return pathCache;
+    }
 
-        // PriorityQueue for managing nodes to explore; compares by distance
-        PriorityQueue<State> pq = new PriorityQueue<>(new Comparator<State>() {
-            @Override
-            public int compare(State s1, State s2) {
-                return Double.compare(s1.dist, s2.dist);
-            }
-        });
-        pq.add(new State(sx, sy, 0.0));
+    private ArrayList<int[]> findPath(SearchWorkspace ws, IntPredicate passable, int sx, int sy, int tx, int ty) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        SearchStats stats = ws.stats();
+        long settled = stats.settled, relaxed = stats.relaxed;
+
+        ArrayList<int[]> path;
+        if (engine == SearchEngine.ASTAR) {
+            path = aStar(ws, passable, sx, sy, tx, ty, heuristic());
+        } else if (engine == SearchEngine.HIERARCHICAL && passable == currentPassability) {
+            path = hierarchical(ws, sx, sy, tx, ty);
+        } else if (engine == SearchEngine.BIDIRECTIONAL || engine == SearchEngine.HIERARCHICAL) {
+            // Option trials see their own passability, which the cluster data does not describe
+            path = bidirectional(ws, passable, sx, sy, tx, ty);
+        } else {
+            path = dijkstra(ws, passable, sx, sy, tx, ty);
+        }
 
-        // parentMap to reconstruct the path after Dijkstra finishes
-        HashMap<String, String> parentMap = new HashMap<>();
-        parentMap.put(sx + "-" + sy, null);
+        event.end();
+        if (event.shouldCommit()) {
+            event.engine = engine.name();
+            event.nodesSettled = stats.settled - settled;
+            event.edgesRelaxed = stats.relaxed - relaxed;
+            event.pathLength = path.size();
+            event.commit();
+        }
+        return path;
+    }
 
-        ArrayList<int[]> path = new ArrayList<>();
+    // Dijkstra's algorithm to find the shortest path from (sx,sy) to (tx,ty)
+    public ArrayList<int[]> dijkstra(int sx, int sy, int tx, int ty) {
+        return dijkstra(workspace, currentPassability, sx, sy, tx, ty);
+    }
+
+    private ArrayList<int[]> dijkstra(SearchWorkspace ws, IntPredicate passable, int sx, int sy, int tx, int ty) {
+        ws.reset();                                             // Every node is unvisited again, no array refill needed
+        IndexedPriorityQueue pq = ws.frontier();
+        SearchStats stats = ws.stats();
+        stats.searches++;
+
+        int source = graph.id(sx, sy);
+        int target = graph.id(tx, ty);
+        ws.set(source, 0.0, -1);
+        pq.add(source, 0.0);
+        stats.pushes++;
 
         // Main Dijkstra loop
         while (!pq.isEmpty()) {
-            State cur = pq.poll();
+            int u = pq.poll();
+            stats.settled++;
 
             // If we've reached the target, reconstruct the path
-            if (cur.x == tx && cur.y == ty) {
-                String current = tx + "-" + ty;
-                while (current != null) {
-                    String[] parts = current.split("-");
-                    int x = Integer.parseInt(parts[0]);
-                    int y = Integer.parseInt(parts[1]);
-                    path.add(new int[]{x, y});
-                    current = parentMap.get(current);
+            if (u == target) {
+                return ws.buildPath(target, graph);
+            }
+
+            // Explore neighbors (edges) of the current node
+            double du = ws.dist(u);
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int v = graph.target(e);
+                // Only consider if destination node is passable
+                if (!passable.test(v)) {
+                    continue;
+                }
+                stats.relaxed++;
+
+                double ndist = du + graph.weight(e);
+                // If we found a shorter path to v, update and queue or decrease its key
+                if (ndist < ws.dist(v)) {
+                    if (pq.contains(v)) {
+                        stats.decreases++;
+                    } else {
+                        stats.pushes++;
+                    }
+                    ws.set(v, ndist, u);
+                    pq.addOrDecrease(v, ndist);
                 }
+            }
+        }
 
-                // Reverse the path so it goes from start to target
-                for (int left = 0, right = path.size() - 1; left < right; left++, right--) {
-                    int[] temp = path.get(left);
-                    path.set(left, path.get(right));
-                    path.set(right, temp);
+        // If target not reached, return empty path
+        return new ArrayList<>();
+    }
+
+    // Bidirectional Dijkstra from (sx,sy) to (tx,ty): one search grows from the source, one from the
+    // target over the reversed edges, which readEdgesFile makes identical to the forward ones. Each
+    // step expands the side with the smaller frontier. The best meeting cost found so far is final
+    // once the two frontier minimums add up to at least that much, so the path has the same cost as
+    // dijkstra's, though ties between equally short paths may be broken differently.
+    public ArrayList<int[]> bidirectional(int sx, int sy, int tx, int ty) {
+        return bidirectional(workspace, currentPassability, sx, sy, tx, ty);
+    }
+
+    private ArrayList<int[]> bidirectional(SearchWorkspace ws, IntPredicate passable, int sx, int sy, int tx, int ty) {
+        SearchWorkspace bw = ws.reverse();
+        ws.reset();
+        bw.reset();
+        IndexedPriorityQueue fq = ws.frontier();
+        IndexedPriorityQueue bq = bw.frontier();
+        SearchStats stats = ws.stats();                         // Both halves count as one search
+        stats.searches++;
+
+        int source = graph.id(sx, sy);
+        int target = graph.id(tx, ty);
+        ws.set(source, 0.0, -1);
+        if (source == target) {
+            return ws.buildPath(target, graph);
+        }
+        // Like every node after the source, the target has to be passable to be entered
+        if (!passable.test(target)) {
+            return new ArrayList<>();
+        }
+        bw.set(target, 0.0, -1);
+        fq.add(source, 0.0);
+        bq.add(target, 0.0);
+        stats.pushes += 2;
+
+        double best = Double.POSITIVE_INFINITY;                 // Cheapest complete path seen so far
+        int meet = -1;                                          // Node where that path joins the two trees
+        while (!fq.isEmpty() && !bq.isEmpty() && fq.peekPriority() + bq.peekPriority() < best) {
+            if (fq.size() <= bq.size()) {
+                int u = fq.poll();
+                stats.settled++;
+                double du = ws.dist(u);
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    int v = graph.target(e);
+                    // The edge u -> v can be walked if v is passable
+                    if (!passable.test(v)) {
+                        continue;
+                    }
+                    stats.relaxed++;
+                    double ndist = du + graph.weight(e);
+                    if (ndist < ws.dist(v)) {
+                        if (fq.contains(v)) {
+                            stats.decreases++;
+                        } else {
+                            stats.pushes++;
+                        }
+                        ws.set(v, ndist, u);
+                        fq.addOrDecrease(v, ndist);
+                    }
+                    if (bw.visited(v) && ndist + bw.dist(v) < best) {
+                        best = ndist + bw.dist(v);
+                        meet = v;
+                    }
+                }
+            } else {
+                int v = bq.poll();
+                stats.settled++;
+                if (v == source) {
+                    continue;                                   // Paths never pass through the source again
+                }
+                double dv = bw.dist(v);
+                for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                    int u = graph.target(e);
+                    // The edge u -> v can be walked because v is passable; u has to be too, unless it is the source
+                    if (u != source && !passable.test(u)) {
+                        continue;
+                    }
+                    stats.relaxed++;
+                    double ndist = dv + graph.weight(e);
+                    if (ndist < bw.dist(u)) {
+                        if (bq.contains(u)) {
+                            stats.decreases++;
+                        } else {
+                            stats.pushes++;
+                        }
+                        bw.set(u, ndist, v);
+                        bq.addOrDecrease(u, ndist);
+                    }
+                    if (ws.visited(u) && ws.dist(u) + ndist < best) {
+                        best = ws.dist(u) + ndist;
+                        meet = u;
+                    }
                 }
+            }
+        }
 
-                return path;
+        // If the trees never met, the target cannot be reached
+        if (meet < 0) {
+            return new ArrayList<>();
+        }
+        ArrayList<int[]> path = ws.buildPath(meet, graph);      // Source to the meeting node
+        for (int cur = bw.parent(meet); cur != -1; cur = bw.parent(cur)) {
+            path.add(new int[]{graph.xOf(cur), graph.yOf(cur)}); // Then on towards the target
+        }
+        return path;
+    }
+
+    // Hierarchical search on the current passability, falling back to an exact search when the
+    // abstract graph finds no route. With instrumentation on, every path is also searched exactly
+    // and the extra cost is added to the workspace's cost gap.
+    private ArrayList<int[]> hierarchical(SearchWorkspace ws, int sx, int sy, int tx, int ty) {
+        if (hierarchy == null) {
+            hierarchy = new HierarchicalPlanner(graph, maxX, maxY, types, clusterSize, currentPassability, HEAP_ARITY);
+            overlay.addListener(hierarchy);
+        }
+        ArrayList<int[]> path = hierarchy.findPath(ws, graph.id(sx, sy), graph.id(tx, ty));
+        if (path == null) {
+            return bidirectional(ws, currentPassability, sx, sy, tx, ty);
+        }
+        if (timing && path.size() > 1) {
+            if (exactWorkspace == null) {
+                exactWorkspace = new SearchWorkspace(graph.nodeCount(), HEAP_ARITY);
             }
+            ArrayList<int[]> exact = bidirectional(exactWorkspace, currentPassability, sx, sy, tx, ty);
+            ws.stats().costGap += calculateTotalPathDistance(path, graph) - calculateTotalPathDistance(exact, graph);
+        }
+        return path;
+    }
 
-            // Explore neighbors (edges) of the current node
-            String key = cur.x + "-" + cur.y;
-            ArrayList<Edge> edges = adj.getOrDefault(key);
-            if (edges == null) {
-                continue;
+    // A* search from (sx,sy) to (tx,ty); the heap is keyed by distance so far plus the heuristic estimate
+    public ArrayList<int[]> aStar(int sx, int sy, int tx, int ty, Heuristic h) {
+        return aStar(workspace, currentPassability, sx, sy, tx, ty, h);
+    }
+
+    private ArrayList<int[]> aStar(SearchWorkspace ws, IntPredicate passable, int sx, int sy, int tx, int ty, Heuristic h) {
+        ws.reset();
+        IndexedPriorityQueue pq = ws.frontier();
+        SearchStats stats = ws.stats();
+        stats.searches++;
+
+        int source = graph.id(sx, sy);
+        int target = graph.id(tx, ty);
+        ws.set(source, 0.0, -1);
+        pq.add(source, h.estimate(sx, sy, tx, ty));
+        stats.pushes++;
+
+        while (!pq.isEmpty()) {
+            int u = pq.poll();
+            stats.settled++;
+
+            // If we've reached the target, reconstruct the path
+            if (u == target) {
+                return ws.buildPath(target, graph);
             }
-            for (Edge e : edges) {
+
+            double du = ws.dist(u);
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int v = graph.target(e);
                 // Only consider if destination node is passable
-                if (grid[e.nx][e.ny] == null || !grid[e.nx][e.ny].isPassable()) {
+                if (!passable.test(v)) {
                     continue;
                 }
-
-                double ndist = cur.dist + e.time;
-                // If we found a shorter path to (e.nx,e.ny), update and push to queue
-                if (ndist < dist[e.nx][e.ny]) {
-                    dist[e.nx][e.ny] = ndist;
-                    pq.add(new State(e.nx, e.ny, ndist));
-                    parentMap.put(e.nx + "-" + e.ny, cur.x + "-" + cur.y);
+                stats.relaxed++;
+
+                double ndist = du + graph.weight(e);
+                // A polled node may be queued again if it is improved, so an imprecise bound never costs optimality
+                if (ndist < ws.dist(v)) {
+                    if (pq.contains(v)) {
+                        stats.decreases++;
+                    } else {
+                        stats.pushes++;
+                    }
+                    ws.set(v, ndist, u);
+                    pq.addOrDecrease(v, ndist + h.estimate(graph.xOf(v), graph.yOf(v), tx, ty));
                 }
             }
         }
@@ -449,54 +1018,21 @@ public class OzNavigator {
 
     // Inner classes:
 
+    // A node found by revealAround; its live state is kept in the GridOverlay
     public static class Node {
-        int x, y;
-        int type;
-        boolean passable;
+        final int x, y;
+        final int type;
 
-        Node(int x, int y, int t, boolean passable) {
+        Node(int x, int y, int t) {
             this.x = x;
             this.y = y;
             this.type = t;
-
-            // Type 1 = impassable, Type 0 or >=2 = passable initially
-            if (type == 1){
-                this.passable = false;
-            }
-            if (type == 0 || type >= 2) {
-                this.passable = true;
-            }
-
-        }
-
-        public boolean isPassable() {
-            return passable;
         }
 
         public int getType(){
             return type;
         }
 
-        public void setType(int newType){
-            type = newType;
-            this.passable = (type == 0 || type >= 2);  // Passable if 0 or >=2
-        }
-
-        public void setTypeToZero(){
-            type = 0;
-            this.passable = true;
-        }
-
-    }
-
-    public static class Edge {
-        int nx, ny;
-        double time;
-        Edge(int nx, int ny, double time) {
-            this.nx = nx;
-            this.ny = ny;
-            this.time = time;
-        }
     }
 
     public static class Objective {
@@ -508,15 +1044,4 @@ public class OzNavigator {
             this.options = options;  // Possible type options to try for this objective
         }
     }
-
-    public static class State {
-        int x, y;
-        double dist;
-
-        public State(int x, int y, double dist) {
-            this.x = x;
-            this.y = y;
-            this.dist = dist;        // Distance so far from the start
-        }
-    }
 }
\ No newline at end of file
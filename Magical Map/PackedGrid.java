@@ -0,0 +1,84 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Node types of a grid, indexed by node id and packed off-heap in a direct buffer. Cells take one
+// byte while every type is in 0..254, and the store widens itself to two or four bytes when a wider
+// type is set, so a 100M-cell map of ordinary types needs 100 MB outside the Java heap.
+// In the one and two byte forms a cell holds type + 1, and 0 marks a missing cell, so a freshly
+// allocated (zeroed) buffer has no nodes. The four byte form holds the type itself.
+//
+// Written while a map is loaded, then only read; absolute reads are safe from several threads.
+public class PackedGrid implements NodeTypes {
+    private final int cells;
+    private int width;                        // Bytes per cell: 1, 2 or 4
+    private ByteBuffer data;
+
+    public PackedGrid(int cells) {
+        this.cells = cells;
+        this.width = 1;
+        this.data = ByteBuffer.allocateDirect(cells).order(ByteOrder.nativeOrder());
+    }
+
+    public int cells() {
+        return cells;
+    }
+
+    public int bytesPerCell() {
+        return width;
+    }
+
+    // Type of a node id, or CompiledMap.MISSING if the cell has no node
+    @Override
+    public int type(int id) {
+        if (width == 1) {
+            int v = data.get(id) & 0xFF;
+            return v == 0 ? CompiledMap.MISSING : v - 1;
+        }
+        if (width == 2) {
+            int v = data.getChar(id << 1);
+            return v == 0 ? CompiledMap.MISSING : v - 1;
+        }
+        return data.getInt(id << 2);
+    }
+
+    // Set the type of a node id; CompiledMap.MISSING removes the node
+    public void set(int id, int type) {
+        if (type != CompiledMap.MISSING) {
+            while (!fits(type, width)) {
+                widen();
+            }
+        }
+        if (width == 1) {
+            data.put(id, (byte) (type == CompiledMap.MISSING ? 0 : type + 1));
+        } else if (width == 2) {
+            data.putChar(id << 1, (char) (type == CompiledMap.MISSING ? 0 : type + 1));
+        } else {
+            data.putInt(id << 2, type);
+        }
+    }
+
+    // Internal helper methods
+
+    private static boolean fits(int type, int width) {
+        return width == 4 || type >= 0 && type < (width == 1 ? 0xFF : 0xFFFF);
+    }
+
+    // Copy every cell into a buffer twice as wide
+    private void widen() {
+        int wider = width * 2;
+        if ((long) cells * wider > Integer.MAX_VALUE) {
+            throw new IllegalStateException("A grid of " + cells + " cells cannot hold node types this wide");
+        }
+        ByteBuffer next = ByteBuffer.allocateDirect(cells * wider).order(ByteOrder.nativeOrder());
+        for (int id = 0; id < cells; id++) {
+            int t = type(id);
+            if (wider == 2) {
+                next.putChar(id << 1, (char) (t == CompiledMap.MISSING ? 0 : t + 1));
+            } else {
+                next.putInt(id << 2, t);
+            }
+        }
+        data = next;
+        width = wider;
+    }
+}
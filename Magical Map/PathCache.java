@@ -0,0 +1,146 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+// Bounded LRU cache of paths found on the current passability, keyed by (source, target) node ids.
+// An entry stays valid across passability changes that cannot affect it: a node that becomes
+// impassable only drops the entries whose path runs through it, and a node that becomes passable
+// only drops the entries it could shorten, i.e. where the heuristic bound of a detour through it is
+// below the cached cost. Unreachable results are dropped by any node becoming passable.
+public class PathCache implements GridOverlay.ChangeListener {
+    private static final class Entry {
+        final int source, target;
+        final ArrayList<int[]> path;          // As returned by the search; callers must not modify it
+        final int[] ids;                      // Node ids of the path, sorted for binary search
+        final double cost;                    // Infinite if the target was unreachable
+        Entry prev, next;                     // Neighbours in recency order
+
+        Entry(int source, int target, ArrayList<int[]> path, int[] ids, double cost) {
+            this.source = source;
+            this.target = target;
+            this.path = path;
+            this.ids = ids;
+            this.cost = cost;
+        }
+    }
+
+    private final CsrGraph graph;
+    private final IntPredicate passable;      // Passability the cached paths were found on
+    private final Heuristic bound;            // Admissible lower bound on travel time
+    private final int capacity;
+    private final LongObjectMap<Entry> entries;
+    private Entry head, tail;                 // Most and least recently used
+
+    public PathCache(CsrGraph graph, IntPredicate passable, Heuristic bound, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Path cache capacity must be positive: " + capacity);
+        }
+        this.graph = graph;
+        this.passable = passable;
+        this.bound = bound;
+        this.capacity = capacity;
+        this.entries = new LongObjectMap<>(capacity);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Cached path from source to target, or null if there is none
+    public ArrayList<int[]> get(int source, int target) {
+        Entry e = entries.get(LongObjectMap.key(source, target));
+        if (e == null) {
+            return null;
+        }
+        unlink(e);
+        linkFirst(e);
+        return e.path;
+    }
+
+    // Cache a path found on the current passability, evicting the least recently used entry if full
+    public void put(int source, int target, ArrayList<int[]> path, double cost) {
+        int[] ids = new int[path.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.id(path.get(i)[0], path.get(i)[1]);
+        }
+        Arrays.sort(ids);
+        Entry e = new Entry(source, target, path, ids, path.isEmpty() ? Double.POSITIVE_INFINITY : cost);
+
+        Entry old = entries.put(LongObjectMap.key(source, target), e);
+        if (old != null) {
+            unlink(old);
+        } else if (entries.size() > capacity) {
+            remove(tail);
+        }
+        linkFirst(e);
+    }
+
+    public void clear() {
+        entries.clear();
+        head = null;
+        tail = null;
+    }
+
+    @Override
+    public void nodeChanged(int id) {
+        boolean cleared = passable.test(id);
+        int x = graph.xOf(id), y = graph.yOf(id);
+        for (Entry e = head; e != null; ) {
+            Entry next = e.next;
+            if (cleared ? couldShorten(e, x, y) : Arrays.binarySearch(e.ids, id) >= 0) {
+                remove(e);
+            }
+            e = next;
+        }
+    }
+
+    // Only types that start out impassable change passability; walls becoming passable can shorten anything
+    @Override
+    public void typeZeroed(int type) {
+        if (type == 0 || type >= 2) {
+            return;                           // Their revealed nodes arrive through nodeChanged
+        }
+        clear();
+    }
+
+    // A path through (x,y) costs at least the bound from the source to it plus the bound from it on
+    private boolean couldShorten(Entry e, int x, int y) {
+        if (e.cost == Double.POSITIVE_INFINITY) {
+            return true;
+        }
+        double via = bound.estimate(graph.xOf(e.source), graph.yOf(e.source), x, y)
+                + bound.estimate(x, y, graph.xOf(e.target), graph.yOf(e.target));
+        return via < e.cost;
+    }
+
+    private void remove(Entry e) {
+        entries.remove(LongObjectMap.key(e.source, e.target));
+        unlink(e);
+    }
+
+    private void linkFirst(Entry e) {
+        e.prev = null;
+        e.next = head;
+        if (head != null) {
+            head.prev = e;
+        } else {
+            tail = e;
+        }
+        head = e;
+    }
+
+    private void unlink(Entry e) {
+        if (e.prev != null) {
+            e.prev.next = e.next;
+        } else {
+            head = e.next;
+        }
+        if (e.next != null) {
+            e.next.prev = e.prev;
+        } else {
+            tail = e.prev;
+        }
+        e.prev = null;
+        e.next = null;
+    }
+}
@@ -0,0 +1,44 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Step index of every node id on the current path, so membership checks cost O(1) per node.
+// Replacing the path is O(path length): entries of older paths are invalidated by the epoch.
+public class PathIndex {
+    private final int[] step;                 // Position of a node id on the path
+    private final int[] stamp;                // Epoch of the path that wrote step[id]
+    private int epoch;
+    private int length;                       // Nodes on the current path
+
+    public PathIndex(int nodeCount) {
+        this.step = new int[nodeCount];
+        this.stamp = new int[nodeCount];
+        this.epoch = 0;
+    }
+
+    // Index a new path, given as (x,y) pairs from start to target
+    public void set(ArrayList<int[]> path, CsrGraph graph) {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {     // Wrap around before stamps become ambiguous
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        length = path.size();
+        for (int i = 0; i < length; i++) {
+            int[] p = path.get(i);
+            int id = graph.id(p[0], p[1]);
+            if (stamp[id] != epoch) {         // A node listed twice keeps its first step
+                step[id] = i;
+                stamp[id] = epoch;
+            }
+        }
+    }
+
+    public int length() {
+        return length;
+    }
+
+    // Step at which the node appears on the path, or -1 if it is not on it
+    public int indexOf(int id) {
+        return stamp[id] == epoch ? step[id] : -1;
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.Arrays;
+
+// Keeps the trace in memory as packed (tag, a, b) int triples, for comparing runs
+public class RecordingTraceSink implements TraceSink {
+    private int[] events = new int[3 * 1024];
+    private int size;                                      // Number of recorded events
+
+    @Override
+    public void optionChosen(int option) {
+        record(BinaryTraceSink.CHOSEN, option, 0);
+    }
+
+    @Override
+    public void pathImpassable() {
+        record(BinaryTraceSink.IMPASSABLE, 0, 0);
+    }
+
+    @Override
+    public void movedTo(int x, int y) {
+        record(BinaryTraceSink.MOVED, x, y);
+    }
+
+    @Override
+    public void objectiveReached(int number) {
+        record(BinaryTraceSink.REACHED, number, 0);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int tag(int i) {
+        return events[3 * i];
+    }
+
+    public int a(int i) {
+        return events[3 * i + 1];
+    }
+
+    public int b(int i) {
+        return events[3 * i + 2];
+    }
+
+    public boolean sameEvent(int i, RecordingTraceSink other, int j) {
+        return tag(i) == other.tag(j) && a(i) == other.a(j) && b(i) == other.b(j);
+    }
+
+    // The text line this event is written as
+    public String describe(int i) {
+        switch (tag(i)) {
+            case BinaryTraceSink.CHOSEN:
+                return "Number " + a(i) + " is chosen!";
+            case BinaryTraceSink.IMPASSABLE:
+                return "Path is impassable!";
+            case BinaryTraceSink.MOVED:
+                return "Moving to " + a(i) + "-" + b(i);
+            default:
+                return "Objective " + a(i) + " reached!";
+        }
+    }
+
+    private void record(int tag, int a, int b) {
+        if (3 * size + 3 > events.length) {
+            events = Arrays.copyOf(events, events.length * 2); // Double the capacity
+        }
+        events[3 * size] = tag;
+        events[3 * size + 1] = a;
+        events[3 * size + 2] = b;
+        size++;
+    }
+}
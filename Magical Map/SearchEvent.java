@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event for one shortest-path search, including those run by option trials
+@Name("magicalmap.Search")
+@Label("Search")
+@Category("Magical Map")
+public class SearchEvent extends Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Nodes Settled")
+    long nodesSettled;
+
+    @Label("Edges Relaxed")
+    long edgesRelaxed;
+
+    @Label("Path Length")
+    @Description("Nodes on the path found, 0 if the target was unreachable")
+    int pathLength;
+}
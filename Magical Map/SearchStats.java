@@ -0,0 +1,36 @@
+// Work counters of the searches run on one workspace; plain fields, since a workspace is only used by one thread at a time
+public class SearchStats {
+    long searches;                            // Searches started
+    long settled;                             // Nodes polled from the frontier (the indexed heap never holds stale entries)
+    long pushes;                              // Nodes added to the frontier
+    long decreases;                           // Decrease-key operations on nodes already in the frontier
+    long relaxed;                             // Edges into passable nodes that were examined
+    long cacheHits;                           // Path cache lookups that returned a path
+    long cacheMisses;                         // Path cache lookups that had to search
+    long tileFaults;                          // Tiles read from a tiled map file, set per objective
+    double costGap;                           // Extra cost of approximate paths over exact ones, when measured
+
+    public void add(SearchStats other) {
+        searches += other.searches;
+        settled += other.settled;
+        pushes += other.pushes;
+        decreases += other.decreases;
+        relaxed += other.relaxed;
+        cacheHits += other.cacheHits;
+        cacheMisses += other.cacheMisses;
+        tileFaults += other.tileFaults;
+        costGap += other.costGap;
+    }
+
+    public void clear() {
+        searches = 0;
+        settled = 0;
+        pushes = 0;
+        decreases = 0;
+        relaxed = 0;
+        cacheHits = 0;
+        cacheMisses = 0;
+        tileFaults = 0;
+        costGap = 0;
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class SearchWorkspace {
+    private final double[] dist;              // Tentative distance of every node id
+    private final int[] parent;               // Predecessor of every node id on its shortest path, -1 for the source
+    private final int[] stamp;                // Epoch in which dist/parent of a node were last written
+    private final IndexedPriorityQueue frontier; // Heap reused by every search
+    private final SearchStats stats = new SearchStats(); // Work done by the searches on this workspace
+    private final int heapArity;
+    private int epoch;                        // Current search; entries with an older stamp count as unvisited
+    private SearchWorkspace reverse;          // Second side of a bidirectional search, created on first use
+
+    public SearchWorkspace(int nodeCount, int heapArity) {
+        this.dist = new double[nodeCount];
+        this.parent = new int[nodeCount];
+        this.stamp = new int[nodeCount];
+        this.frontier = new IndexedPriorityQueue(nodeCount, heapArity);
+        this.heapArity = heapArity;
+        this.epoch = 0;
+    }
+
+    // Workspace for the backward half of a bidirectional search; its parent links point towards the target
+    public SearchWorkspace reverse() {
+        if (reverse == null) {
+            reverse = new SearchWorkspace(dist.length, heapArity);
+        }
+        return reverse;
+    }
+
+    // Start a new search: O(1) apart from draining what the previous search left in the heap
+    public void reset() {
+        frontier.clear();
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {     // Wrap around before stamps become ambiguous
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+    }
+
+    public IndexedPriorityQueue frontier() {
+        return frontier;
+    }
+
+    public SearchStats stats() {
+        return stats;
+    }
+
+    public boolean visited(int node) {        // True if the node has a distance in this search
+        return stamp[node] == epoch;
+    }
+
+    public double dist(int node) {
+        return stamp[node] == epoch ? dist[node] : Double.POSITIVE_INFINITY;
+    }
+
+    public int parent(int node) {
+        return stamp[node] == epoch ? parent[node] : -1;
+    }
+
+    public void set(int node, double d, int from) {
+        dist[node] = d;
+        parent[node] = from;
+        stamp[node] = epoch;
+    }
+
+    // Rebuild the path from the source to the target by following int parents
+    public ArrayList<int[]> buildPath(int target, CsrGraph graph) {
+        ArrayList<int[]> path = new ArrayList<>();
+        for (int cur = target; cur != -1; cur = parent(cur)) {
+            path.add(new int[]{graph.xOf(cur), graph.yOf(cur)});
+        }
+
+        // Reverse the path so it goes from start to target
+        for (int left = 0, right = path.size() - 1; left < right; left++, right--) {
+            int[] temp = path.get(left);
+            path.set(left, path.get(right));
+            path.set(right, temp);
+        }
+        return path;
+    }
+}
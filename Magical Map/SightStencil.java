@@ -0,0 +1,80 @@
+import java.util.Arrays;
+
+// Cell offsets of the line-of-sight disc, precomputed once per radius.
+// Besides the full disc it keeps, for each of the eight single-cell moves, the offsets that enter
+// the disc with that move, so a step only has to look at the disc's leading edge.
+// All offset lists are sorted by dx, then dy, the order in which a row-by-row scan meets the cells.
+public class SightStencil {
+    private final int radius;
+    private final int[] fullX, fullY;         // Every offset with dx*dx + dy*dy <= radius*radius
+    private final int[][] enterX, enterY;     // Per move (mx,my): offsets inside the new disc but outside the old one
+
+    public SightStencil(int radius) {
+        this.radius = radius;
+        int r2 = radius * radius;
+        int[][] full = offsets(radius, 0, 0, r2, false);
+        fullX = full[0];
+        fullY = full[1];
+        enterX = new int[9][];
+        enterY = new int[9][];
+        for (int mx = -1; mx <= 1; mx++) {
+            for (int my = -1; my <= 1; my++) {
+                int[][] enter = offsets(radius, mx, my, r2, true);
+                enterX[move(mx, my)] = enter[0];
+                enterY[move(mx, my)] = enter[1];
+            }
+        }
+    }
+
+    public int radius() {
+        return radius;
+    }
+
+    public int[] fullX() {
+        return fullX;
+    }
+
+    public int[] fullY() {
+        return fullY;
+    }
+
+    // True if a move by (mx,my) has its own entering offsets, i.e. it is at most one cell in each axis
+    public static boolean isStep(int mx, int my) {
+        return mx >= -1 && mx <= 1 && my >= -1 && my <= 1;
+    }
+
+    public int[] enterX(int mx, int my) {
+        return enterX[move(mx, my)];
+    }
+
+    public int[] enterY(int mx, int my) {
+        return enterY[move(mx, my)];
+    }
+
+    private static int move(int mx, int my) {
+        return (mx + 1) * 3 + (my + 1);
+    }
+
+    // Offsets o inside the disc; with entering set, only those whose cell was outside the disc
+    // around the previous center, where the cell sits at o + move
+    private static int[][] offsets(int radius, int mx, int my, int r2, boolean entering) {
+        int count = 0;
+        int[] xs = new int[Math.max(0, 2 * radius + 1) * Math.max(0, 2 * radius + 1)];
+        int[] ys = new int[xs.length];
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                if (dx * dx + dy * dy > r2) {
+                    continue;
+                }
+                int ox = dx + mx, oy = dy + my;
+                if (entering && ox * ox + oy * oy <= r2) {
+                    continue;                 // Already inside the previous disc
+                }
+                xs[count] = dx;
+                ys[count] = dy;
+                count++;
+            }
+        }
+        return new int[][]{Arrays.copyOf(xs, count), Arrays.copyOf(ys, count)};
+    }
+}
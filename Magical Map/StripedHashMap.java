@@ -0,0 +1,316 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Thread-safe counterpart of HashMap for state shared between concurrent navigation sessions.
+// Keys are spread over a fixed number of stripes, each a chained hash table with its own lock.
+// Reads take no lock: a node's key, hash and link never change once it is published, and bucket
+// heads are published with release stores, so a reader always walks a consistent chain. Writers
+// lock only the stripe of their key. A stripe grows on its own by building a new table beside the
+// old one, so one resize copies a fraction of the map and readers keep using the old table until
+// the new one is published.
+public class StripedHashMap<K, V> {
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int MIN_STRIPE_CAPACITY = 4;
+    private static final float LOAD_FACTOR = 0.75f;            // Chains stay short below this fill ratio
+    private static final VarHandle BUCKET = MethodHandles.arrayElementVarHandle(Node[].class);
+
+    private final Stripe<K, V>[] stripes;
+    private final int stripeShift;                              // The top hash bits pick the stripe
+
+    // One mapping; only the value is ever updated in place
+    private static final class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        final Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    // A chained table guarded by its own lock; the low hash bits pick the bucket
+    private static final class Stripe<K, V> {
+        final ReentrantLock lock = new ReentrantLock();         // Held by writers of this stripe
+        volatile Node<K, V>[] table;
+        volatile int count;
+        int threshold;                                          // Count at which the table doubles
+
+        Stripe(int capacity) {
+            setTable(newTable(capacity));
+        }
+
+        void setTable(Node<K, V>[] table) {
+            threshold = (int) (table.length * LOAD_FACTOR);
+            this.table = table;                                 // Volatile write publishes the filled table
+        }
+    }
+
+    public StripedHashMap() {
+        this(0, DEFAULT_STRIPES);
+    }
+
+    // Presized so that expectedSize pairs fit without resizing
+    public StripedHashMap(int expectedSize) {
+        this(expectedSize, DEFAULT_STRIPES);
+    }
+
+    // stripes is rounded up to a power of two; more stripes let more writers run at once
+    @SuppressWarnings("unchecked")
+    public StripedHashMap(int expectedSize, int stripeCount) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative expected size: " + expectedSize);
+        }
+        if (stripeCount <= 0 || stripeCount > 1 << 16) {
+            throw new IllegalArgumentException("Stripe count out of range: " + stripeCount);
+        }
+        int n = Integer.highestOneBit(stripeCount);
+        n = n < stripeCount ? n << 1 : n;
+        stripes = (Stripe<K, V>[]) new Stripe<?, ?>[n];
+        stripeShift = 32 - Integer.numberOfTrailingZeros(n);
+        int perStripe = (int) Math.ceil(expectedSize / (double) n / LOAD_FACTOR) + 1;
+        int capacity = MIN_STRIPE_CAPACITY;
+        while (capacity < perStripe) {
+            capacity <<= 1;
+        }
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe<>(capacity);
+        }
+    }
+
+    public V get(K key) { // Lock-free; null if the key could not be found.
+        int h = hash(key);
+        Node<K, V>[] tab = stripeFor(h).table;
+        for (Node<K, V> n = bucket(tab, h); n != null; n = n.next) {
+            if (n.hash == h && keyEquals(n.key, key)) {
+                return n.value;
+            }
+        }
+        return null;
+    }
+
+    public V getOrDefault(K key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean containsKey(K key) {
+        int h = hash(key);
+        Node<K, V>[] tab = stripeFor(h).table;
+        for (Node<K, V> n = bucket(tab, h); n != null; n = n.next) {
+            if (n.hash == h && keyEquals(n.key, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Insert or replace; returns the previous value, or null if the key was absent
+    public V put(K key, V value) {
+        int h = hash(key);
+        Stripe<K, V> s = stripeFor(h);
+        s.lock.lock();
+        try {
+            Node<K, V> n = find(s.table, h, key);
+            if (n != null) {
+                V old = n.value;
+                n.value = value;
+                return old;
+            }
+            insert(s, h, key, value);
+            return null;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    // Insert only if the key is absent; returns the value now mapped to the key
+    public V putIfAbsent(K key, V value) {
+        int h = hash(key);
+        Stripe<K, V> s = stripeFor(h);
+        s.lock.lock();
+        try {
+            Node<K, V> n = find(s.table, h, key);
+            if (n != null) {
+                return n.value;
+            }
+            insert(s, h, key, value);
+            return value;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    // Value of the key, computing and storing it first if it is absent or null. The function runs
+    // at most once per missing key, under the key's stripe lock, so concurrent callers asking for
+    // the same key wait for that one result instead of computing it again. It must not use this
+    // map. A null result stores nothing.
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;                                       // The common, lock-free case
+        }
+        int h = hash(key);
+        Stripe<K, V> s = stripeFor(h);
+        s.lock.lock();
+        try {
+            Node<K, V> n = find(s.table, h, key);
+            if (n != null && n.value != null) {
+                return n.value;                                 // Another thread filled it meanwhile
+            }
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                if (n != null) {
+                    n.value = value;
+                } else {
+                    insert(s, h, key, value);
+                }
+            }
+            return value;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    // Remove the key; returns its value, or null if it was absent
+    public V remove(K key) {
+        int h = hash(key);
+        Stripe<K, V> s = stripeFor(h);
+        s.lock.lock();
+        try {
+            Node<K, V>[] tab = s.table;
+            int i = h & (tab.length - 1);
+            Node<K, V> first = bucket(tab, h);
+            Node<K, V> n = first;
+            while (n != null && !(n.hash == h && keyEquals(n.key, key))) {
+                n = n.next;
+            }
+            if (n == null) {
+                return null;
+            }
+            // Links are final, so the nodes in front of the removed one are copied onto its successor;
+            // readers still walking the old chain see it unchanged
+            Node<K, V> chain = n.next;
+            for (Node<K, V> p = first; p != n; p = p.next) {
+                chain = new Node<>(p.hash, p.key, p.value, chain);
+            }
+            BUCKET.setRelease(tab, i, chain);
+            s.count = s.count - 1;
+            return n.value;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    // Sum of the stripe counts; exact when no write is in progress
+    public int size() {
+        long total = 0;
+        for (Stripe<K, V> s : stripes) {
+            total += s.count;
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        for (Stripe<K, V> s : stripes) {
+            if (s.count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Empties one stripe at a time; readers see each stripe either before or after
+    public void clear() {
+        for (Stripe<K, V> s : stripes) {
+            s.lock.lock();
+            try {
+                s.setTable(newTable(MIN_STRIPE_CAPACITY));
+                s.count = 0;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+    }
+
+    // Internal helper methods
+
+    private static int hash(Object key) {
+        return key == null ? 0 : Hashing.mix(key.hashCode());
+    }
+
+    private Stripe<K, V> stripeFor(int h) {
+        return stripes[(h >>> stripeShift) & (stripes.length - 1)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> bucket(Node<K, V>[] tab, int h) {
+        return (Node<K, V>) BUCKET.getAcquire(tab, h & (tab.length - 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newTable(int capacity) {
+        return (Node<K, V>[]) new Node<?, ?>[capacity];
+    }
+
+    private static <K, V> Node<K, V> find(Node<K, V>[] tab, int h, Object key) {
+        for (Node<K, V> n = bucket(tab, h); n != null; n = n.next) {
+            if (n.hash == h && keyEquals(n.key, key)) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    // Caller holds the stripe lock and has checked that the key is absent
+    private static <K, V> void insert(Stripe<K, V> s, int h, K key, V value) {
+        Node<K, V>[] tab = s.table;
+        int c = s.count + 1;
+        if (c > s.threshold && tab.length < 1 << 30) {
+            tab = grow(s, tab);
+        }
+        BUCKET.setRelease(tab, h & (tab.length - 1), new Node<>(h, key, value, bucket(tab, h)));
+        s.count = c;
+    }
+
+    // Double the stripe's table. The old table is left untouched for readers still using it; the
+    // longest tail of each chain that lands in one new bucket is shared, the rest is copied.
+    private static <K, V> Node<K, V>[] grow(Stripe<K, V> s, Node<K, V>[] old) {
+        Node<K, V>[] tab = newTable(old.length << 1);
+        int mask = tab.length - 1;
+        for (int i = 0; i < old.length; i++) {
+            Node<K, V> first = bucket(old, i);
+            if (first == null) {
+                continue;
+            }
+            Node<K, V> lastRun = first;
+            int lastIndex = first.hash & mask;
+            for (Node<K, V> n = first.next; n != null; n = n.next) {
+                int idx = n.hash & mask;
+                if (idx != lastIndex) {
+                    lastIndex = idx;
+                    lastRun = n;
+                }
+            }
+            tab[lastIndex] = lastRun;
+            for (Node<K, V> n = first; n != lastRun; n = n.next) {
+                int idx = n.hash & mask;
+                tab[idx] = new Node<>(n.hash, n.key, n.value, tab[idx]);
+            }
+        }
+        s.setTable(tab);
+        return tab;
+    }
+
+    private static boolean keyEquals(Object key1, Object key2) { // Method to compare the keys.
+        if (key1 == null) {
+            return key2 == null;
+        }
+        return key1.equals(key2);
+    }
+}
@@ -0,0 +1,83 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Writes the trace as the original text lines, formatting numbers straight into the output buffers
+public class TextTraceSink implements TraceSink {
+    private static final byte[] NUMBER = bytes("Number ");
+    private static final byte[] CHOSEN = bytes(" is chosen!\n");
+    private static final byte[] IMPASSABLE = bytes("Path is impassable!\n");
+    private static final byte[] MOVING = bytes("Moving to ");
+    private static final byte[] OBJECTIVE = bytes("Objective ");
+    private static final byte[] REACHED = bytes(" reached!\n");
+    private static final int MAX_LINE = 64;                // Longest line: two ints plus the fixed text
+
+    private final AsyncChannelWriter out;
+    private final byte[] digits = new byte[11];            // Scratch space for one formatted int
+
+    public TextTraceSink(String filename) throws IOException {
+        out = new AsyncChannelWriter(filename);
+    }
+
+    @Override
+    public void optionChosen(int option) throws IOException {
+        ByteBuffer buf = out.buffer(MAX_LINE);
+        buf.put(NUMBER);
+        putInt(buf, option);
+        buf.put(CHOSEN);
+    }
+
+    @Override
+    public void pathImpassable() throws IOException {
+        out.buffer(MAX_LINE).put(IMPASSABLE);
+    }
+
+    @Override
+    public void movedTo(int x, int y) throws IOException {
+        ByteBuffer buf = out.buffer(MAX_LINE);
+        buf.put(MOVING);
+        putInt(buf, x);
+        buf.put((byte) '-');
+        putInt(buf, y);
+        buf.put((byte) '\n');
+    }
+
+    @Override
+    public void objectiveReached(int number) throws IOException {
+        ByteBuffer buf = out.buffer(MAX_LINE);
+        buf.put(OBJECTIVE);
+        putInt(buf, number);
+        buf.put(REACHED);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // Same digits as Integer.toString, without creating a String
+    private void putInt(ByteBuffer buf, int value) {
+        long v = value;                                    // long so that Integer.MIN_VALUE can be negated
+        if (v < 0) {
+            buf.put((byte) '-');
+            v = -v;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        while (n > 0) {
+            buf.put(digits[--n]);
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
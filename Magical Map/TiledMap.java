@@ -0,0 +1,427 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// A map split into square tiles of nodes and their outgoing edges, written once by --tile and paged
+// in on demand: a tile is read from the file the first time a search or a reveal touches one of its
+// nodes, and at most a fixed number of tiles are kept, evicting the least recently used. So memory
+// for the map data is capped by the cache size, not the map size.
+//
+// Edge e of the tiled graph is (tile << edgeBits) | its index within the tile. Edges are stored with
+// their source node, so the edge range of a node never leaves its tile.
+//
+// Layout (little-endian, every tile starts on an 8-byte boundary):
+//   header  magic, version, maxX, maxY, tileSize, edgeBits, edgeCount, reserved,
+//           minTimePerEuclidean, minTimePerOctile, padding up to HEADER_SIZE
+//   index   per tile: file offset (long), edge count, CRC32C of the tile
+//   tiles   per tile: weights double[edges], types int[cells], offsets int[cells + 1],
+//           targets int[edges]; cells in node id order, offsets local to the tile
+// Tiles are numbered like node ids, tile (tx,ty) being tx * tilesY + ty; a tile covers the cells
+// tx * tileSize <= x < (tx + 1) * tileSize, and likewise for y, cut off at the grid's edge.
+public class TiledMap implements NodeTypes {
+    public static final int DEFAULT_TILE_SIZE = 64;
+    public static final int DEFAULT_CACHE_TILES = 256;
+
+    private static final int MAGIC = 0x4C545A4F;              // "OZTL" read as little-endian bytes
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int INDEX_ENTRY = 16;
+
+    // A tile in memory. Never modified, so a thread still holding an evicted tile can finish with it.
+    private static final class Tile {
+        final double[] weights;
+        final int[] types;
+        final int[] offsets;
+        final int[] targets;
+        long lastUse;                                         // Clock value of the latest access
+
+        Tile(double[] weights, int[] types, int[] offsets, int[] targets) {
+            this.weights = weights;
+            this.types = types;
+            this.offsets = offsets;
+            this.targets = targets;
+        }
+    }
+
+    private final String filename;
+    private final FileChannel channel;                        // Kept open while the map is in use
+    private final int maxX, maxY;
+    private final int tileSize, tilesY;
+    private final int edgeBits, edgeMask;
+    private final long[] tileOffsets;                         // File offset of every tile
+    private final int[] tileEdges;                            // Edge count of every tile
+    private final int[] tileChecksums;
+    private final long fingerprint;                           // CRC32C of the header and index
+    private final Tile[] resident;                            // Loaded tile of every tile id, null if not in memory
+    private final int[] residentIds;                          // Ids of the loaded tiles, in no order
+    private int residentCount;
+    private long clock;                                       // Advanced on every node access, racy by design
+    private long faults, evictions;
+    private final CsrGraph graph;
+
+    private TiledMap(String filename, FileChannel channel, ByteBuffer header, ByteBuffer index, int capacity) {
+        this.filename = filename;
+        this.channel = channel;
+        this.maxX = header.getInt(8);
+        this.maxY = header.getInt(12);
+        this.tileSize = header.getInt(16);
+        this.tilesY = (maxY + tileSize - 1) / tileSize;
+        this.edgeBits = header.getInt(20);
+        this.edgeMask = (1 << edgeBits) - 1;
+        int tiles = tileCount(maxX, maxY, tileSize);
+        this.tileOffsets = new long[tiles];
+        this.tileEdges = new int[tiles];
+        this.tileChecksums = new int[tiles];
+        for (int t = 0; t < tiles; t++) {
+            tileOffsets[t] = index.getLong(t * INDEX_ENTRY);
+            tileEdges[t] = index.getInt(t * INDEX_ENTRY + 8);
+            tileChecksums[t] = index.getInt(t * INDEX_ENTRY + 12);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(header.duplicate().clear());
+        crc.update(index.duplicate().clear());
+        this.fingerprint = crc.getValue();
+        this.resident = new Tile[tiles];
+        this.residentIds = new int[Math.min(capacity, tiles)];
+        this.graph = new Graph(maxX * maxY, maxY, header.getInt(24), header.getDouble(32), header.getDouble(40));
+    }
+
+    public int maxX() {
+        return maxX;
+    }
+
+    public int maxY() {
+        return maxY;
+    }
+
+    // Identifies the map without reading its tiles: the index holds every tile's checksum
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    // The adjacency, served from the tile cache
+    public CsrGraph graph() {
+        return graph;
+    }
+
+    @Override
+    public int type(int id) {
+        Tile tile = touch(tileOf(id));
+        return tile.types[cellOf(id)];
+    }
+
+    public synchronized long faults() {                       // Tiles read from the file so far
+        return faults;
+    }
+
+    public synchronized long evictions() {                    // Tiles dropped to make room so far
+        return evictions;
+    }
+
+    public synchronized int residentTiles() {
+        return residentCount;
+    }
+
+    // True if the file starts with the tiled map magic number
+    public static boolean isTiledMap(String filename) {
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            return ch.read(head, 0) == 4 && head.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Split a loaded map into tiles of tileSize x tileSize cells
+    public static void write(String filename, int maxX, int maxY, NodeTypes types, CsrGraph graph, int tileSize)
+            throws IOException {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        int tiles = tileCount(maxX, maxY, tileSize);
+        int tilesY = (maxY + tileSize - 1) / tileSize;
+
+        // Edge ids keep the tile in their high bits, so the largest tile decides how many low bits there are
+        int[] edges = new int[tiles];
+        int most = 0;
+        for (int t = 0; t < tiles; t++) {
+            int x0 = (t / tilesY) * tileSize, y0 = (t % tilesY) * tileSize;
+            for (int x = x0; x < Math.min(x0 + tileSize, maxX); x++) {
+                for (int y = y0; y < Math.min(y0 + tileSize, maxY); y++) {
+                    int u = graph.id(x, y);
+                    edges[t] += graph.endEdge(u) - graph.firstEdge(u);
+                }
+            }
+            most = Math.max(most, edges[t]);
+        }
+        int edgeBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(most));
+        if (edgeBits > 31 || tiles > 1L << (31 - edgeBits)) {
+            throw new IOException("Map has too many edges to number them by tile");
+        }
+
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer index = ByteBuffer.allocate(tiles * INDEX_ENTRY).order(ByteOrder.LITTLE_ENDIAN);
+            long position = align(HEADER_SIZE + (long) tiles * INDEX_ENTRY);
+            for (int t = 0; t < tiles; t++) {
+                int x0 = (t / tilesY) * tileSize, y0 = (t % tilesY) * tileSize;
+                int w = Math.min(tileSize, maxX - x0), h = Math.min(tileSize, maxY - y0);
+                ByteBuffer tile = ByteBuffer.allocate((int) tileBytes(w * h, edges[t])).order(ByteOrder.LITTLE_ENDIAN);
+                for (int x = x0; x < x0 + w; x++) {           // Weights first, then the int sections
+                    for (int y = y0; y < y0 + h; y++) {
+                        int u = graph.id(x, y);
+                        for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                            tile.putDouble(graph.weight(e));
+                        }
+                    }
+                }
+                for (int x = x0; x < x0 + w; x++) {
+                    for (int y = y0; y < y0 + h; y++) {
+                        tile.putInt(types.type(graph.id(x, y)));
+                    }
+                }
+                int local = 0;
+                for (int x = x0; x < x0 + w; x++) {
+                    for (int y = y0; y < y0 + h; y++) {
+                        tile.putInt(local);
+                        int u = graph.id(x, y);
+                        local += graph.endEdge(u) - graph.firstEdge(u);
+                    }
+                }
+                tile.putInt(local);
+                for (int x = x0; x < x0 + w; x++) {
+                    for (int y = y0; y < y0 + h; y++) {
+                        int u = graph.id(x, y);
+                        for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                            tile.putInt(graph.target(e));
+                        }
+                    }
+                }
+
+                tile.clear();
+                CRC32C crc = new CRC32C();
+                crc.update(tile.duplicate());
+                index.putLong(position).putInt(edges[t]).putInt((int) crc.getValue());
+                writeFully(ch, tile, position);
+                position += tile.capacity();
+            }
+
+            index.clear();
+            writeFully(ch, index, HEADER_SIZE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(maxX).putInt(maxY)
+                    .putInt(tileSize).putInt(edgeBits).putInt(graph.edgeCount()).putInt(0)
+                    .putDouble(graph.minTimePerEuclidean()).putDouble(graph.minTimePerOctile());
+            header.clear();
+            writeFully(ch, header, 0);
+        }
+    }
+
+    // Open a tiled map keeping at most cacheTiles tiles in memory. Only the header and the index are
+    // read here; tiles are checked against their checksums as they are paged in.
+    public static TiledMap open(String filename, int cacheTiles) throws IOException {
+        if (cacheTiles < 1) {
+            throw new IllegalArgumentException("Tile cache must hold at least one tile: " + cacheTiles);
+        }
+        FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (readFully(ch, header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                throw new IOException(filename + ": not a tiled map");
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException(filename + ": unsupported tiled map version " + version);
+            }
+            int tiles = tileCount(header.getInt(8), header.getInt(12), header.getInt(16));
+            ByteBuffer index = ByteBuffer.allocate(tiles * INDEX_ENTRY).order(ByteOrder.LITTLE_ENDIAN);
+            if (readFully(ch, index, HEADER_SIZE) < index.capacity()) {
+                throw new IOException(filename + ": truncated tile index");
+            }
+            TiledMap map = new TiledMap(filename, ch, header, index, cacheTiles);
+            long end = align(HEADER_SIZE + (long) tiles * INDEX_ENTRY);
+            for (int t = 0; t < tiles; t++) {
+                end += map.tileBytes(t);
+            }
+            if (ch.size() != end) {
+                throw new IOException(filename + ": tiled map size " + ch.size() + " does not match its index");
+            }
+            return map;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    // Internal helper methods
+
+    // The tile with the given id, paged in if needed, marked as just used
+    private Tile touch(int t) {
+        Tile tile = resident[t];
+        if (tile == null) {
+            tile = fault(t);
+        }
+        tile.lastUse = ++clock;
+        return tile;
+    }
+
+    // The tile holding edge e; only the node accessors advance the clock
+    private Tile tileOfEdge(int e) {
+        Tile tile = resident[e >>> edgeBits];
+        return tile != null ? tile : fault(e >>> edgeBits);
+    }
+
+    // Read a tile that is not in memory, evicting the least recently used one if the cache is full
+    private synchronized Tile fault(int t) {
+        Tile tile = resident[t];
+        if (tile != null) {
+            return tile;                                      // Another thread read it meanwhile
+        }
+        if (residentCount == residentIds.length) {
+            int victim = 0;
+            for (int i = 1; i < residentCount; i++) {
+                if (resident[residentIds[i]].lastUse < resident[residentIds[victim]].lastUse) {
+                    victim = i;
+                }
+            }
+            resident[residentIds[victim]] = null;
+            residentIds[victim] = residentIds[--residentCount];
+            evictions++;
+        }
+        try {
+            tile = read(t);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        tile.lastUse = clock;
+        resident[t] = tile;
+        residentIds[residentCount++] = t;
+        faults++;
+        return tile;
+    }
+
+    private Tile read(int t) throws IOException {
+        int cells = cells(t);
+        int edges = tileEdges[t];
+        ByteBuffer buf = ByteBuffer.allocate((int) tileBytes(t)).order(ByteOrder.LITTLE_ENDIAN);
+        if (readFully(channel, buf, tileOffsets[t]) < buf.capacity()) {
+            throw new IOException(filename + ": truncated tile " + t);
+        }
+        buf.clear();
+        CRC32C crc = new CRC32C();
+        crc.update(buf.duplicate());
+        if ((int) crc.getValue() != tileChecksums[t]) {
+            throw new IOException(filename + ": checksum mismatch in tile " + t);
+        }
+
+        double[] weights = new double[edges];
+        int[] types = new int[cells];
+        int[] offsets = new int[cells + 1];
+        int[] targets = new int[edges];
+        buf.asDoubleBuffer().get(weights);
+        buf.position(8 * edges);
+        IntBuffer ints = buf.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        ints.get(types).get(offsets).get(targets);
+        return new Tile(weights, types, offsets, targets);
+    }
+
+    private int tileOf(int id) {
+        int x = id / maxY, y = id % maxY;
+        return (x / tileSize) * tilesY + y / tileSize;
+    }
+
+    // Index of a node among the cells of its tile
+    private int cellOf(int id) {
+        int x = id / maxY, y = id % maxY;
+        int y0 = y - y % tileSize;
+        int h = Math.min(tileSize, maxY - y0);
+        return (x % tileSize) * h + (y - y0);
+    }
+
+    private int cells(int t) {
+        int x0 = (t / tilesY) * tileSize, y0 = (t % tilesY) * tileSize;
+        return Math.min(tileSize, maxX - x0) * Math.min(tileSize, maxY - y0);
+    }
+
+    private long tileBytes(int t) {
+        return tileBytes(cells(t), tileEdges[t]);
+    }
+
+    private static long tileBytes(int cells, int edges) {
+        return align(8L * edges + 4L * cells + 4L * (cells + 1) + 4L * edges);
+    }
+
+    private static int tileCount(int maxX, int maxY, int tileSize) {
+        long tiles = (long) ((maxX + tileSize - 1) / tileSize) * ((maxY + tileSize - 1) / tileSize);
+        if (tiles * INDEX_ENTRY > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many tiles: " + tiles);
+        }
+        return (int) tiles;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static int readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        int total = 0;
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, position + total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        long at = position;
+        while (buf.hasRemaining()) {
+            at += ch.write(buf, at);
+        }
+    }
+
+    // The adjacency of a tiled map. Edge ids carry their tile, so each accessor finds its tile directly.
+    private final class Graph extends CsrGraph {
+        private final int edgeCount;
+
+        Graph(int nodeCount, int maxY, int edgeCount, double minTimePerEuclidean, double minTimePerOctile) {
+            super(nodeCount, maxY, minTimePerEuclidean, minTimePerOctile);
+            this.edgeCount = edgeCount;
+        }
+
+        @Override
+        public int edgeCount() {
+            return edgeCount;
+        }
+
+        @Override
+        public int firstEdge(int u) {
+            int t = tileOf(u);
+            return t << edgeBits | touch(t).offsets[cellOf(u)];
+        }
+
+        @Override
+        public int endEdge(int u) {
+            int t = tileOf(u);
+            return t << edgeBits | touch(t).offsets[cellOf(u) + 1];
+        }
+
+        @Override
+        public int target(int e) {
+            return tileOfEdge(e).targets[e & edgeMask];
+        }
+
+        @Override
+        public double weight(int e) {
+            return tileOfEdge(e).weights[e & edgeMask];
+        }
+    }
+}
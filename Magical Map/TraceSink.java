@@ -0,0 +1,15 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+// Receives the navigation trace produced by OzNavigator.run()
+public interface TraceSink extends Closeable {
+    void optionChosen(int option) throws IOException;      // "Number <option> is chosen!"
+
+    void pathImpassable() throws IOException;              // "Path is impassable!"
+
+    void movedTo(int x, int y) throws IOException;         // "Moving to <x>-<y>"
+
+    void objectiveReached(int number) throws IOException;  // "Objective <number> reached!"
+
+    void flush() throws IOException;                       // Hand everything written so far to the output thread
+}
@@ -0,0 +1,120 @@
+package magicalmap.bench;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of a shared read-mostly cache under contention: the StripedHashMap against the
+ * project's HashMap behind one global lock.
+ *
+ * <p>Each operation either reads a random key, filling it through computeIfAbsent on a miss
+ * (get-then-put under the lock for the locked map), or, for a {@code writePercent} share, puts a
+ * new value for it. JMH takes a single thread count per run, so {@link #main} runs the benchmark
+ * at 1 to 64 threads in turn and writes {@code contention-<threads>t.json} for each:
+ *
+ * <pre>java -cp benchmarks/target/benchmarks.jar magicalmap.bench.ContentionBenchmark</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentionBenchmark {
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+    private static final Function<Object, Object> FILL = key -> key;
+
+    @Param({"striped", "locked"})
+    String map;
+
+    /** Share of operations that replace the value of their key. */
+    @Param({"1", "10"})
+    int writePercent;
+
+    @Param({"100000"})
+    int size;
+
+    private final Object lock = new Object();
+    private Integer[] keys;
+    private Object striped;
+    private Object locked;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = i;
+        }
+        // Half the keys start filled, so the early misses do not dominate the first iterations
+        striped = (Object) Engine.NEW_STRIPED_MAP.invokeExact(size, 64);
+        locked = (Object) Engine.NEW_HASH_MAP.invokeExact();
+        for (int i = 0; i < size; i += 2) {
+            Object key = keys[i];
+            Object ignored = (Object) Engine.STRIPED_COMPUTE.invokeExact(striped, key, (Object) FILL);
+            Engine.MAP_PUT.invokeExact(locked, key, key);
+        }
+    }
+
+    @Benchmark
+    public Object operation() throws Throwable {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        Object key = keys[rnd.nextInt(size)];
+        boolean write = rnd.nextInt(100) < writePercent;
+        return map.equals("striped") ? stripedOperation(key, write) : lockedOperation(key, write);
+    }
+
+    private Object stripedOperation(Object key, boolean write) throws Throwable {
+        if (write) {
+            return (Object) Engine.STRIPED_PUT.invokeExact(striped, key, key);
+        }
+        return (Object) Engine.STRIPED_COMPUTE.invokeExact(striped, key, (Object) FILL);
+    }
+
+    private Object lockedOperation(Object key, boolean write) throws Throwable {
+        synchronized (lock) {
+            if (write) {
+                Engine.MAP_PUT.invokeExact(locked, key, key);
+                return key;
+            }
+            Object value = (Object) Engine.MAP_GET.invokeExact(locked, key);
+            if (value == null) {
+                value = FILL.apply(key);
+                Engine.MAP_PUT.invokeExact(locked, key, value);
+            }
+            return value;
+        }
+    }
+
+    /** Runs the benchmark once per thread count; extra arguments are passed on to JMH. */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .include(ContentionBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("contention-" + threads + "t.json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package magicalmap.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A full {@code run()} of one cross-map objective, fog reveals and replanning included.
+ *
+ * <p>run() changes the navigator's grid, so a freshly loaded navigator is prepared before every
+ * invocation; loading is not part of the measured time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class EndToEndBenchmark {
+    @Param({"100", "300", "1000"})
+    int gridSize;
+
+    @Param({"dijkstra", "astar"})
+    String engine;
+
+    @Param({"3"})
+    int radius;
+
+    private SyntheticMap map;
+    private Object trace;
+    private Object navigator;
+
+    @Setup(Level.Trial)
+    public void setUpMap() {
+        map = new SyntheticMap(gridSize, radius, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpNavigator() throws Throwable {
+        trace = map.newTrace();
+        navigator = map.load(engine, trace);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeTrace() throws Throwable {
+        Engine.CLOSE_TRACE.invokeExact(trace);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownMap() {
+        map.close();
+    }
+
+    @Benchmark
+    public void run() throws Throwable {
+        Engine.RUN.invokeExact(navigator);
+    }
+}
@@ -0,0 +1,104 @@
+package magicalmap.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Handles onto the map engine classes.
+ *
+ * <p>The engine lives in the unnamed package, which Java code in a named package cannot
+ * reference, and JMH refuses benchmarks in the unnamed package. The benchmarks therefore reach
+ * the engine through method handles held in static final fields, which the JIT inlines like
+ * direct calls.
+ */
+final class Engine {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    static final Class<?> NAVIGATOR = load("OzNavigator");
+    static final Class<?> TRACE_SINK = load("TraceSink");
+    static final Class<?> HASH_MAP = load("HashMap");
+    static final Class<?> STRIPED_MAP = load("StripedHashMap");
+    static final Class<?> PRIORITY_QUEUE = load("PriorityQueue");
+    static final Class<?> INDEXED_QUEUE = load("IndexedPriorityQueue");
+    static final Class<?> SEARCH_ENGINE = load("OzNavigator$SearchEngine");
+
+    // OzNavigator
+    static final MethodHandle NEW_NAVIGATOR = constructor(NAVIGATOR, TRACE_SINK);
+    static final MethodHandle NEW_TEXT_TRACE = constructor(load("TextTraceSink"), String.class);
+    static final MethodHandle READ_NODES = virtual(NAVIGATOR, "readNodeFile", void.class, String.class);
+    static final MethodHandle READ_EDGES = virtual(NAVIGATOR, "readEdgesFile", void.class, String.class);
+    static final MethodHandle READ_OBJECTIVES = virtual(NAVIGATOR, "readObjFile", void.class, String.class);
+    static final MethodHandle RUN = virtual(NAVIGATOR, "run", void.class);
+    static final MethodHandle SET_SEARCH_ENGINE = virtual(NAVIGATOR, "setSearchEngine", void.class, SEARCH_ENGINE);
+    static final MethodHandle SET_HEURISTIC = virtual(NAVIGATOR, "setHeuristic", void.class, String.class);
+    static final MethodHandle FIND_PATH = virtual(NAVIGATOR, "findPath", ArrayList.class,
+            int.class, int.class, int.class, int.class);
+    static final MethodHandle REVEAL_AROUND = virtual(NAVIGATOR, "revealAround", ArrayList.class, int.class, int.class);
+    static final MethodHandle CLOSE_TRACE = virtual(TRACE_SINK, "close", void.class);
+
+    // HashMap<K, V>
+    static final MethodHandle NEW_HASH_MAP = constructor(HASH_MAP);
+    static final MethodHandle MAP_PUT = virtual(HASH_MAP, "put", void.class, Object.class, Object.class);
+    static final MethodHandle MAP_GET = virtual(HASH_MAP, "get", Object.class, Object.class);
+
+    // StripedHashMap<K, V>
+    static final MethodHandle NEW_STRIPED_MAP = constructor(STRIPED_MAP, int.class, int.class);
+    static final MethodHandle STRIPED_PUT = virtual(STRIPED_MAP, "put", Object.class, Object.class, Object.class);
+    static final MethodHandle STRIPED_COMPUTE = virtual(STRIPED_MAP, "computeIfAbsent", Object.class,
+            Object.class, Function.class);
+
+    // PriorityQueue<E>
+    static final MethodHandle NEW_PRIORITY_QUEUE = constructor(PRIORITY_QUEUE, Comparator.class);
+    static final MethodHandle PQ_ADD = virtual(PRIORITY_QUEUE, "add", boolean.class, Object.class);
+    static final MethodHandle PQ_POLL = virtual(PRIORITY_QUEUE, "poll", Object.class);
+
+    // IndexedPriorityQueue
+    static final MethodHandle NEW_INDEXED_QUEUE = constructor(INDEXED_QUEUE, int.class, int.class);
+    static final MethodHandle IPQ_ADD = virtual(INDEXED_QUEUE, "add", void.class, int.class, double.class);
+    static final MethodHandle IPQ_POLL = virtual(INDEXED_QUEUE, "poll", int.class);
+
+    private Engine() {
+    }
+
+    static Object searchEngine(String name) {
+        for (Object constant : SEARCH_ENGINE.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equalsIgnoreCase(name)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown search engine: " + name);
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Constructor handle typed as (params) -> Object, with reference params erased to Object
+    private static MethodHandle constructor(Class<?> owner, Class<?>... params) {
+        try {
+            MethodHandle mh = LOOKUP.findConstructor(owner, MethodType.methodType(void.class, params));
+            return mh.asType(mh.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Virtual method handle typed as (Object receiver, params) -> ret, with reference params erased to Object
+    private static MethodHandle virtual(Class<?> owner, String name, Class<?> ret, Class<?>... params) {
+        try {
+            MethodHandle mh = LOOKUP.findVirtual(owner, name, MethodType.methodType(ret, params));
+            MethodType erased = mh.type().erase().changeParameterType(0, Object.class);
+            return mh.asType(erased);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package magicalmap.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Put and get throughput of the project's HashMap for several sizes and key shapes. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HashMapBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    /** "coordinate" keys are "x-y" Strings as the navigator used them; "integer" keys are boxed node ids. */
+    @Param({"coordinate", "integer"})
+    String keys;
+
+    private Object[] keyArray;
+    private Object[] lookupOrder;
+    private Object filled;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        int side = (int) Math.ceil(Math.sqrt(size));
+        keyArray = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keyArray[i] = keys.equals("coordinate") ? (i / side) + "-" + (i % side) : Integer.valueOf(i);
+        }
+        // Look keys up in a shuffled order so the access pattern does not follow insertion
+        lookupOrder = keyArray.clone();
+        Random rnd = new Random(42);
+        for (int i = lookupOrder.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            Object t = lookupOrder[i];
+            lookupOrder[i] = lookupOrder[j];
+            lookupOrder[j] = t;
+        }
+        filled = (Object) Engine.NEW_HASH_MAP.invokeExact();
+        for (Object key : keyArray) {
+            Engine.MAP_PUT.invokeExact(filled, key, key);
+        }
+    }
+
+    /** Builds a map of {@code size} entries from empty; reported time is per map. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object putAll() throws Throwable {
+        Object map = (Object) Engine.NEW_HASH_MAP.invokeExact();
+        for (Object key : keyArray) {
+            Engine.MAP_PUT.invokeExact(map, key, key);
+        }
+        return map;
+    }
+
+    /** Looks up every key of a filled map once; reported time is per full pass. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void getAll(Blackhole bh) throws Throwable {
+        for (Object key : lookupOrder) {
+            bh.consume((Object) Engine.MAP_GET.invokeExact(filled, key));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package magicalmap.bench;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Add-then-drain throughput of the generic PriorityQueue and the indexed d-ary heap. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeapBenchmark {
+    private static final Comparator<Object> BY_VALUE = (a, b) -> Double.compare((Double) a, (Double) b);
+
+    @Param({"1000", "100000"})
+    int size;
+
+    @Param({"2", "4", "8"})
+    int arity;
+
+    private double[] priorities;
+    private Double[] boxed;
+    private Object indexed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Random rnd = new Random(42);
+        priorities = new double[size];
+        boxed = new Double[size];
+        for (int i = 0; i < size; i++) {
+            priorities[i] = rnd.nextDouble() * 1000;
+            boxed[i] = priorities[i];
+        }
+        indexed = (Object) Engine.NEW_INDEXED_QUEUE.invokeExact(size, arity);
+    }
+
+    /** The generic binary heap has no arity; it is measured once per arity value for easy comparison. */
+    @Benchmark
+    public void genericAddPoll(Blackhole bh) throws Throwable {
+        Object pq = (Object) Engine.NEW_PRIORITY_QUEUE.invokeExact((Object) BY_VALUE);
+        for (Double p : boxed) {
+            bh.consume((boolean) Engine.PQ_ADD.invokeExact(pq, (Object) p));
+        }
+        for (int i = 0; i < size; i++) {
+            bh.consume((Object) Engine.PQ_POLL.invokeExact(pq));
+        }
+    }
+
+    @Benchmark
+    public void indexedAddPoll(Blackhole bh) throws Throwable {
+        for (int i = 0; i < size; i++) {
+            Engine.IPQ_ADD.invokeExact(indexed, i, priorities[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            bh.consume((int) Engine.IPQ_POLL.invokeExact(indexed));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package magicalmap.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Loading the node, edge and objective files of a synthetic map. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class ParseBenchmark {
+    @Param({"100", "500", "1000"})
+    int gridSize;
+
+    private SyntheticMap map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = new SyntheticMap(gridSize, 1, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        map.close();
+    }
+
+    @Benchmark
+    public Object loadMap() throws Throwable {
+        Object nav = (Object) Engine.NEW_NAVIGATOR.invokeExact((Object) null);
+        Engine.READ_NODES.invokeExact(nav, (Object) map.nodes);
+        Engine.READ_EDGES.invokeExact(nav, (Object) map.edges);
+        Engine.READ_OBJECTIVES.invokeExact(nav, (Object) map.objectives);
+        return nav;
+    }
+}
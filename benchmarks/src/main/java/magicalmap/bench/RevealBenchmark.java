@@ -0,0 +1,59 @@
+package magicalmap.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Line-of-sight reveals along a diagonal walk, at several radii.
+ *
+ * <p>Every call moves one cell, like a step of the move loop. Once the walk wraps around, the
+ * cells are already revealed, so the numbers reflect the steady-state cost of a step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RevealBenchmark {
+    private static final int GRID_SIZE = 500;
+
+    @Param({"1", "3", "8", "16", "32"})
+    int radius;
+
+    private SyntheticMap map;
+    private Object trace;
+    private Object navigator;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        map = new SyntheticMap(GRID_SIZE, radius, 42);
+        trace = map.newTrace();
+        navigator = map.load("dijkstra", trace);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        Engine.CLOSE_TRACE.invokeExact(trace);
+        map.close();
+    }
+
+    @Benchmark
+    public Object revealStep() throws Throwable {
+        step = (step + 1) % GRID_SIZE;
+        return (Object) Engine.REVEAL_AROUND.invokeExact(navigator, step, step);
+    }
+}
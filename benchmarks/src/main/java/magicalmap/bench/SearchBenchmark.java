@@ -0,0 +1,53 @@
+package magicalmap.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** A single corner-to-corner shortest-path query on synthetic grids. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+@State(Scope.Thread)
+public class SearchBenchmark {
+    @Param({"100", "500", "1000", "2000", "4000"})
+    int gridSize;
+
+    @Param({"dijkstra", "astar", "alt"})
+    String engine;
+
+    private SyntheticMap map;
+    private Object trace;
+    private Object navigator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        map = new SyntheticMap(gridSize, 1, 42);
+        trace = map.newTrace();
+        navigator = map.load(engine, trace);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        Engine.CLOSE_TRACE.invokeExact(trace);
+        map.close();
+    }
+
+    @Benchmark
+    public Object cornerToCorner() throws Throwable {
+        return (Object) Engine.FIND_PATH.invokeExact(navigator, 0, 0, gridSize - 1, gridSize - 1);
+    }
+}
@@ -0,0 +1,103 @@
+package magicalmap.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * A seeded square grid map written in the node, edge and objective file formats.
+ *
+ * <p>Cells are mostly open ground with some walls (type 1) and fog (types 2 to 4). Every cell is
+ * linked to its right and lower neighbours with a random travel time. The four corners are always
+ * open, and the single objective runs from (0,0) to the opposite corner.
+ */
+final class SyntheticMap implements AutoCloseable {
+    final int size;
+    final Path dir;
+    final String nodes;
+    final String edges;
+    final String objectives;
+
+    SyntheticMap(int size, int radius, long seed) {
+        this.size = size;
+        try {
+            dir = Files.createTempDirectory("ozmap-bench");
+            nodes = dir.resolve("nodes.txt").toString();
+            edges = dir.resolve("edges.txt").toString();
+            objectives = dir.resolve("objectives.txt").toString();
+            write(radius, new Random(seed));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(int radius, Random rnd) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(Path.of(nodes))) {
+            w.write(size + " " + size + "\n");
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    boolean corner = (x == 0 || x == size - 1) && (y == 0 || y == size - 1);
+                    double p = rnd.nextDouble();
+                    int type = corner || p < 0.75 ? 0 : p < 0.85 ? 1 : 2 + rnd.nextInt(3);
+                    w.write(x + " " + y + " " + type + "\n");
+                }
+            }
+        }
+        try (BufferedWriter w = Files.newBufferedWriter(Path.of(edges))) {
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    if (x + 1 < size) {
+                        w.write(x + "-" + y + "," + (x + 1) + "-" + y + " " + weight(rnd) + "\n");
+                    }
+                    if (y + 1 < size) {
+                        w.write(x + "-" + y + "," + x + "-" + (y + 1) + " " + weight(rnd) + "\n");
+                    }
+                }
+            }
+        }
+        try (BufferedWriter w = Files.newBufferedWriter(Path.of(objectives))) {
+            w.write(radius + "\n");
+            w.write("0 0\n");
+            w.write((size - 1) + " " + (size - 1) + "\n");
+        }
+    }
+
+    private static String weight(Random rnd) {
+        return String.format(Locale.ROOT, "%.3f", 1 + 9 * rnd.nextDouble());
+    }
+
+    // A text trace sink writing to a file in the map directory; close it with Engine.CLOSE_TRACE
+    Object newTrace() throws Throwable {
+        return (Object) Engine.NEW_TEXT_TRACE.invokeExact((Object) dir.resolve("trace.txt").toString());
+    }
+
+    // A navigator with this map loaded; "alt" is A* with landmark bounds, built while loading
+    Object load(String engine, Object trace) throws Throwable {
+        Object nav = (Object) Engine.NEW_NAVIGATOR.invokeExact(trace);
+        if (engine.equals("alt")) {
+            Engine.SET_SEARCH_ENGINE.invokeExact(nav, Engine.searchEngine("astar"));
+            Engine.SET_HEURISTIC.invokeExact(nav, (Object) "alt");
+        } else {
+            Engine.SET_SEARCH_ENGINE.invokeExact(nav, Engine.searchEngine(engine));
+        }
+        Engine.READ_NODES.invokeExact(nav, (Object) nodes);
+        Engine.READ_EDGES.invokeExact(nav, (Object) edges);
+        Engine.READ_OBJECTIVES.invokeExact(nav, (Object) objectives);
+        return nav;
+    }
+
+    @Override
+    public void close() {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}